@@ -0,0 +1,68 @@
+package com.investsimulator.benchmark;
+
+import com.investsimulator.dto.AssetDTO;
+import com.investsimulator.model.Asset;
+import com.investsimulator.service.AssetSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code /api/market/assets?search=} against the in-memory index, over a
+ * catalogue of made-up tickers and multi-word names. Queries cover a short
+ * prefix, a ticker prefix, an infix inside a name and a miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssetSearchBenchmark {
+
+    private static final String[] WORDS = {
+        "global", "tata", "reliance", "power", "energy", "motors", "bank", "finance", "steel", "pharma",
+        "labs", "infra", "digital", "capital", "holdings", "chemicals", "textiles", "foods", "systems", "retail"
+    };
+
+    @Param({"1000", "100000"})
+    public int assets;
+
+    @Param({"r", "relia", "otor", "zzzz"})
+    public String query;
+
+    private AssetSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        InMemoryRepositories repos = new InMemoryRepositories();
+        Random rnd = new Random(42);
+        for (long id = 1; id <= assets; id++) {
+            String w1 = WORDS[rnd.nextInt(WORDS.length)];
+            String w2 = WORDS[rnd.nextInt(WORDS.length)];
+            String ticker = (w1.substring(0, Math.min(4, w1.length())) + w2.charAt(0) + id).toUpperCase();
+            BigDecimal price = BigDecimal.valueOf(1 + rnd.nextInt(5_000)).setScale(6);
+            repos.assets.put(id, Asset.builder()
+                .id(id).symbol((id % 4 == 0 ? "BINANCE:" : "NSE:") + ticker)
+                .name(capitalize(w1) + " " + capitalize(w2) + " Ltd")
+                .type(id % 4 == 0 ? Asset.AssetType.CRYPTO : Asset.AssetType.STOCK)
+                .sector("Sector " + (id % 12))
+                .basePrice(price).currentPrice(price)
+                .build());
+        }
+        index = new AssetSearchIndex(repos.assetRepo, repos.priceBook());
+        index.load();
+    }
+
+    @Benchmark
+    public List<AssetDTO> search() {
+        return index.search(query, 50);
+    }
+
+    private static String capitalize(String w) {
+        return Character.toUpperCase(w.charAt(0)) + w.substring(1);
+    }
+}
@@ -0,0 +1,63 @@
+package com.investsimulator.benchmark;
+
+import com.investsimulator.dto.BacktestRequest;
+import com.investsimulator.dto.BacktestResultDTO;
+import com.investsimulator.service.BacktestStrategy;
+import com.investsimulator.service.Backtester;
+import com.investsimulator.service.TickEngine;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One seeded backtest over {@code assets} assets of {@code ticks}
+ * per-second ticks each (a day / a year), sleeves on all cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class BacktestBenchmark {
+
+    @Param({"50"})
+    public int assets;
+
+    @Param({"86400", "31536000"})
+    public long ticks;
+
+    @Param({"sma-crossover", "mean-reversion"})
+    public String strategy;
+
+    private Backtester backtester;
+    private TickEngine engine;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        InMemoryRepositories repos = new InMemoryRepositories().withAssets(assets, 42);
+        engine = repos.tickEngine(Integer.MAX_VALUE);
+        backtester = new Backtester(repos.assetRepo, engine, null,
+            new DefaultListableBeanFactory().getBeanProvider(BacktestStrategy.Factory.class));
+        ReflectionTestUtils.setField(backtester, "maxTicks", 31_536_000L);
+        ReflectionTestUtils.setField(backtester, "maxSteps", Long.MAX_VALUE);   // measure the largest runs too
+        ReflectionTestUtils.setField(backtester, "checkpoints", 500);
+        ReflectionTestUtils.setField(backtester, "maxConcurrentRuns", 1);
+        ReflectionTestUtils.invokeMethod(backtester, "start");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(backtester, "stop");
+        ReflectionTestUtils.invokeMethod(engine, "stop");
+    }
+
+    @Benchmark
+    public BacktestResultDTO seeded() {
+        return backtester.run(new BacktestRequest(strategy, null, "SEEDED", 42L, ticks,
+            null, null, null, BigDecimal.valueOf(10_000_000)));
+    }
+}
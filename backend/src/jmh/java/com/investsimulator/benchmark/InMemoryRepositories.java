@@ -0,0 +1,247 @@
+package com.investsimulator.benchmark;
+
+import com.investsimulator.model.*;
+import com.investsimulator.repository.*;
+import com.investsimulator.service.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * In-memory fakes of the Spring Data repositories so benchmarks run offline.
+ *
+ * Each repository is a dynamic proxy that implements just the methods the
+ * hot paths call, backed by concurrent maps. Entities are mutated in place,
+ * like managed JPA entities, so missing application-level locking shows up
+ * as lost updates.
+ */
+final class InMemoryRepositories {
+
+    final Map<Long, User>                    users      = new ConcurrentHashMap<>();
+    final Map<Long, Asset>                   assets     = new ConcurrentHashMap<>();
+    final Map<Long, Map<Long, Holding>>      holdings   = new ConcurrentHashMap<>();   // userId -> assetId -> holding
+    final Map<Long, Portfolio>               portfolios = new ConcurrentHashMap<>();   // userId -> portfolio
+    final Queue<Transaction>                 ledger     = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong ids = new AtomicLong(1);
+
+    final UserRepository userRepo = repository(UserRepository.class, (name, args) -> switch (name) {
+        case "findById", "findByIdForUpdate" -> Optional.ofNullable(users.get((Long) args[0]));
+        case "findAll"                       -> new ArrayList<>(users.values());
+        case "save" -> {
+            User u = (User) args[0];
+            if (u.getId() == null) u.setId(ids.getAndIncrement());
+            users.put(u.getId(), u);
+            yield u;
+        }
+        default -> throw unsupported(name);
+    });
+
+    final AssetRepository assetRepo = repository(AssetRepository.class, (name, args) -> switch (name) {
+        case "findById"              -> Optional.ofNullable(assets.get((Long) args[0]));
+        case "findAll"               -> new ArrayList<>(assets.values());
+        case "findAllByIsActiveTrue" -> assets.values().stream().filter(Asset::getIsActive).toList();
+        default -> throw unsupported(name);
+    });
+
+    final HoldingRepository holdingRepo = repository(HoldingRepository.class, (name, args) -> switch (name) {
+        case "findAllByUserId" -> new ArrayList<>(userHoldings((Long) args[0]).values());
+        case "findAll", "findAllWithAsset" ->
+            holdings.values().stream().flatMap(m -> m.values().stream()).toList();
+        case "findByUserIdAndAssetId" ->
+            Optional.ofNullable(userHoldings((Long) args[0]).get((Long) args[1]));
+        case "save" -> {
+            Holding h = (Holding) args[0];
+            if (h.getId() == null) h.setId(ids.getAndIncrement());
+            userHoldings(h.getUser().getId()).put(h.getAsset().getId(), h);
+            yield h;
+        }
+        case "delete" -> {
+            Holding h = (Holding) args[0];
+            userHoldings(h.getUser().getId()).remove(h.getAsset().getId());
+            yield null;
+        }
+        default -> throw unsupported(name);
+    });
+
+    final TransactionRepository txRepo = repository(TransactionRepository.class, (name, args) -> switch (name) {
+        case "save" -> {
+            Transaction tx = (Transaction) args[0];
+            tx.setId(ids.getAndIncrement());
+            tx.setExecutedAt(LocalDateTime.now());
+            ledger.add(tx);
+            yield tx;
+        }
+        default -> throw unsupported(name);
+    });
+
+    final PortfolioRepository portfolioRepo = repository(PortfolioRepository.class, (name, args) -> switch (name) {
+        case "findByUserId" -> Optional.ofNullable(portfolios.get((Long) args[0]));
+        case "findAll"      -> new ArrayList<>(portfolios.values());
+        case "save"         -> {
+            Portfolio p = (Portfolio) args[0];
+            portfolios.put(p.getUser().getId(), p);
+            yield p;
+        }
+        default -> throw unsupported(name);
+    });
+
+    final LimitOrderRepository limitOrderRepo = repository(LimitOrderRepository.class, (name, args) -> switch (name) {
+        case "findAllByStatus" -> List.of();
+        default -> throw unsupported(name);
+    });
+
+    final TransactionTemplate txTemplate = new TransactionTemplate(new NoOpTransactionManager());
+
+    final MeterRegistry meters = new SimpleMeterRegistry();
+
+    // ---- Seeding ------------------------------------------------------------
+
+    InMemoryRepositories withUsers(int count, BigDecimal balance) {
+        for (int i = 0; i < count; i++) {
+            User u = User.builder()
+                .fullName("Bench User " + i).email("bench" + i + "@example.com").passwordHash("x")
+                .virtualBalance(balance).initialCapital(balance)
+                .build();
+            userRepo.save(u);
+            portfolioRepo.save(Portfolio.builder().id(ids.getAndIncrement()).user(u).build());
+        }
+        return this;
+    }
+
+    InMemoryRepositories withAssets(int count, long seed) {
+        Random rnd = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            long id = ids.getAndIncrement();
+            BigDecimal price = BigDecimal.valueOf(1 + rnd.nextInt(5_000)).setScale(6);
+            assets.put(id, Asset.builder()
+                .id(id).symbol("BENCH:" + id).name("Bench Asset " + id)
+                .type(i % 4 == 0 ? Asset.AssetType.CRYPTO : Asset.AssetType.STOCK)
+                .sector("Sector " + (i % 12))
+                .basePrice(price).currentPrice(price)
+                .build());
+        }
+        return this;
+    }
+
+    // ---- Wired services -----------------------------------------------------
+
+    PriceBook priceBook() {
+        PriceBook book = new PriceBook(assetRepo);
+        book.load();
+        return book;
+    }
+
+    UserLocks userLocks() {
+        UserLocks locks = new UserLocks();
+        ReflectionTestUtils.setField(locks, "requestedStripes", 1024);
+        ReflectionTestUtils.invokeMethod(locks, "init");
+        return locks;
+    }
+
+    PortfolioValuations valuations(PriceBook book) {
+        PortfolioValuations valuations = new PortfolioValuations(holdingRepo, portfolioRepo, book, null);
+        valuations.load();
+        return valuations;
+    }
+
+    /** Not loaded: balance updates for users it has never seen are ignored. */
+    Leaderboard leaderboard(PortfolioValuations valuations) {
+        return leaderboard(valuations, new LimitOrderBook(limitOrderRepo));
+    }
+
+    Leaderboard leaderboard(PortfolioValuations valuations, LimitOrderBook orders) {
+        return new Leaderboard(null, valuations, orders, meters);
+    }
+
+    TradingService tradingService(PriceBook book) {
+        return tradingService(book, valuations(book));
+    }
+
+    TradingService tradingService(PriceBook book, PortfolioValuations valuations) {
+        LimitOrderBook orders = new LimitOrderBook(limitOrderRepo);
+        orders.load();
+        TradingService service = new TradingService(userRepo, assetRepo, holdingRepo, txRepo, portfolioRepo,
+            limitOrderRepo, book, orders, valuations, leaderboard(valuations, orders), new TradeEventLog(), userLocks(),
+            txTemplate, meters);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+
+    PortfolioService portfolioService(PortfolioValuations valuations) {
+        PortfolioService service = new PortfolioService(userRepo, txRepo, valuations, meters);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+
+    ScenarioEngine scenario(boolean enabled) {
+        ScenarioEngine scenario = new ScenarioEngine(assetRepo, meters);
+        ReflectionTestUtils.setField(scenario, "enabled", enabled);
+        ReflectionTestUtils.setField(scenario, "configuredSeed", 42L);
+        ReflectionTestUtils.setField(scenario, "sectorCorrelation", 0.4);
+        ReflectionTestUtils.setField(scenario, "crossSectorCorrelation", 0.3);
+        ReflectionTestUtils.setField(scenario, "regimeSwitching", true);
+        ReflectionTestUtils.setField(scenario, "initialRegime", ScenarioEngine.Regime.CALM);
+        ReflectionTestUtils.setField(scenario, "crashShare", 0.4);
+        ReflectionTestUtils.setField(scenario, "jumpProbability", 0.0002);
+        ReflectionTestUtils.setField(scenario, "sectorJumpProbability", 0.0005);
+        ReflectionTestUtils.setField(scenario, "jumpStddev", 0.04);
+        scenario.load();
+        return scenario;
+    }
+
+    TickEngine tickEngine(int parallelThreshold) {
+        return tickEngine(parallelThreshold, scenario(true));
+    }
+
+    TickEngine tickEngine(int parallelThreshold, ScenarioEngine scenario) {
+        TickEngine engine = new TickEngine(scenario);
+        ReflectionTestUtils.setField(engine, "stockVolatility", 0.003);
+        ReflectionTestUtils.setField(engine, "cryptoVolatility", 0.008);
+        ReflectionTestUtils.setField(engine, "parallelThreshold", parallelThreshold);
+        ReflectionTestUtils.invokeMethod(engine, "start");
+        return engine;
+    }
+
+    // ---- Plumbing -----------------------------------------------------------
+
+    private Map<Long, Holding> userHoldings(Long userId) {
+        return holdings.computeIfAbsent(userId, k -> new ConcurrentHashMap<>());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> R repository(Class<R> type, BiFunction<String, Object[], Object> handler) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "toString" -> "InMemory" + type.getSimpleName();
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals"   -> proxy == args[0];
+                default         -> handler.apply(method.getName(), args == null ? new Object[0] : args);
+            });
+    }
+
+    private static UnsupportedOperationException unsupported(String method) {
+        return new UnsupportedOperationException("Not faked: " + method);
+    }
+
+    /** Transaction manager that does nothing — the fakes have no transactions. */
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override protected Object doGetTransaction() { return new Object(); }
+        @Override protected void doBegin(Object tx, TransactionDefinition def) { }
+        @Override protected void doCommit(DefaultTransactionStatus status) { }
+        @Override protected void doRollback(DefaultTransactionStatus status) { }
+    }
+}
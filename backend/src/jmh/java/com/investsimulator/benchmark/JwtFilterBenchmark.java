@@ -0,0 +1,118 @@
+package com.investsimulator.benchmark;
+
+import com.investsimulator.security.JwtAuthFilter;
+import com.investsimulator.security.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JWT authentication in {@link JwtAuthFilter}.
+ *
+ * {@code legacy} replays the old filter: key derivation plus a full parse
+ * for each of isTokenValid / extractUserId / extractEmail / extractRole.
+ * {@code uncached} is the filter with the principal cache disabled (one
+ * parse, precomputed key); {@code cached} is the filter as deployed, cycling
+ * over {@code tokens} distinct tokens so lookups hit a populated map.
+ * {@code verify} is a bare signature check with {@link JwtService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "InvestSimulatorSuperSecretKeyForJWTAtLeast256BitsLong1234567890ABCDEF";
+    private static final FilterChain NO_OP = (req, res) -> { };
+
+    @Param({"1", "1000"})
+    public int tokens;
+
+    private JwtService     issuer;
+    private JwtAuthFilter  uncached;
+    private JwtAuthFilter  cached;
+    private String[]       bearer;
+    private int            next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        issuer = jwtService(0);
+        bearer = new String[tokens];
+        for (int i = 0; i < tokens; i++) {
+            bearer[i] = issuer.generateToken("bench" + i + "@example.com", (long) i + 1, "USER");
+        }
+        uncached = new JwtAuthFilter(issuer, new SimpleMeterRegistry());
+        cached   = new JwtAuthFilter(jwtService(10_000), new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(uncached, "init");
+        ReflectionTestUtils.invokeMethod(cached, "init");
+    }
+
+    @Benchmark
+    public Object legacy() {
+        String token = nextToken();
+        if (!legacyParse(token).isEmpty()) {
+            Long   userId = ((Number) legacyParse(token).get("userId")).longValue();
+            String email  = legacyParse(token).getSubject();
+            String role   = (String) legacyParse(token).get("role");
+            return new Object[] {userId, email, role};
+        }
+        return null;
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return issuer.isTokenValid(nextToken());
+    }
+
+    @Benchmark
+    public Object uncached() throws Exception {
+        return run(uncached);
+    }
+
+    @Benchmark
+    public Object cached() throws Exception {
+        return run(cached);
+    }
+
+    private Object run(JwtAuthFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/portfolio");
+        request.addHeader("Authorization", "Bearer " + nextToken());
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP);
+        Object auth = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return auth;
+    }
+
+    private String nextToken() {
+        String t = bearer[next];
+        next = next + 1 == bearer.length ? 0 : next + 1;
+        return t;
+    }
+
+    private static Claims legacyParse(String token) {
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    private static JwtService jwtService(int cacheSize) {
+        JwtService jwt = new JwtService();
+        ReflectionTestUtils.setField(jwt, "secret", SECRET);
+        ReflectionTestUtils.setField(jwt, "expirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(jwt, "cacheSize", cacheSize);
+        ReflectionTestUtils.invokeMethod(jwt, "init");
+        return jwt;
+    }
+}
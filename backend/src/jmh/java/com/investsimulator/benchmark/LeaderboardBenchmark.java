@@ -0,0 +1,77 @@
+package com.investsimulator.benchmark;
+
+import com.investsimulator.dto.LeaderboardEntryDTO;
+import com.investsimulator.dto.LeaderboardPageDTO;
+import com.investsimulator.model.User;
+import com.investsimulator.service.Leaderboard;
+import io.micrometer.core.instrument.Timer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leaderboard over {@code users} ranked users: one refresh after
+ * {@code changedPct}% of them had a balance change, a deep page, and a
+ * single user's rank. Users are registered directly instead of loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LeaderboardBenchmark {
+
+    @Param({"1000000"})
+    public int users;
+
+    @Param({"1", "100"})
+    public int changedPct;
+
+    private Leaderboard      leaderboard;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        InMemoryRepositories repos = new InMemoryRepositories();
+        leaderboard = repos.leaderboard(repos.valuations(repos.priceBook()));
+        ReflectionTestUtils.setField(leaderboard, "refreshTimer", Timer.builder("leaderboard.refresh").register(repos.meters));
+
+        random = new SplittableRandom(42);
+        BigDecimal capital = BigDecimal.valueOf(1_000_000);
+        for (long id = 1; id <= users; id++) {
+            leaderboard.register(User.builder()
+                .id(id).fullName("Bench User " + id).role(User.Role.USER).isActive(true)
+                .virtualBalance(balance()).initialCapital(capital)
+                .build());
+        }
+    }
+
+    @Benchmark
+    public Leaderboard refresh() {
+        int changed = (int) ((long) users * changedPct / 100);
+        for (int i = 0; i < changed; i++) {
+            leaderboard.onCash(1 + random.nextInt(users), balance());
+        }
+        leaderboard.refresh();
+        return leaderboard;
+    }
+
+    @Benchmark
+    public LeaderboardPageDTO deepPage() {
+        return leaderboard.page(Leaderboard.Ranking.RETURN, random.nextInt(users / 50), 50);
+    }
+
+    @Benchmark
+    public Optional<LeaderboardEntryDTO> myRank() {
+        return leaderboard.rankOf(Leaderboard.Ranking.EQUITY, 1 + random.nextInt(users));
+    }
+
+    private BigDecimal balance() {
+        return BigDecimal.valueOf(random.nextLong(100_000_00, 5_000_000_00), 2);
+    }
+}
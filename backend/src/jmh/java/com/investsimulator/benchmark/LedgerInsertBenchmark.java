@@ -0,0 +1,146 @@
+package com.investsimulator.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ledger INSERT throughput against a real MySQL, comparing the two id
+ * strategies at the JDBC level, which is what Hibernate emits for each.
+ *
+ * {@code identity}: one INSERT per row, reading the generated key back, as
+ * Hibernate must for GenerationType.IDENTITY. {@code pooled}: ids come from
+ * a block reserved with one UPDATE on id_sequences, and rows go out in JDBC
+ * batches of {@code batchSize}. Each invocation writes one commit of
+ * 500 ledger rows; score is rows per second.
+ *
+ * Needs a database (it uses a scratch table, not the real ledger):
+ * <pre>
+ * ./mvnw -Pbenchmarks test-compile exec:exec -Djmh.args="LedgerInsert -jvmArgsAppend \
+ *   -Djdbc.url=jdbc:mysql://localhost:3306/invest_simulator?rewriteBatchedStatements=true"
+ * </pre>
+ * jdbc.user / jdbc.password default to root / invest123.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class LedgerInsertBenchmark {
+
+    private static final int    ROWS  = 500;
+    private static final String TABLE = "bench_ledger";
+    private static final String INSERT_IDENTITY =
+        "INSERT INTO " + TABLE + " (user_id, asset_id, type, quantity, price_per_unit, total_amount) "
+            + "VALUES (?, ?, 'BUY', ?, ?, ?)";
+    private static final String INSERT_POOLED =
+        "INSERT INTO " + TABLE + " (id, user_id, asset_id, type, quantity, price_per_unit, total_amount) "
+            + "VALUES (?, ?, ?, 'BUY', ?, ?, ?)";
+
+    @Param({"identity", "pooled"})
+    public String strategy;
+
+    @Param({"50"})
+    public int batchSize;
+
+    private Connection conn;
+    private long nextId;
+    private long blockEnd;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        String url = System.getProperty("jdbc.url");
+        if (url == null) {
+            throw new IllegalStateException("Set -Djdbc.url (see class comment) to run this benchmark");
+        }
+        conn = DriverManager.getConnection(url,
+            System.getProperty("jdbc.user", "root"), System.getProperty("jdbc.password", "invest123"));
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS " + TABLE);
+            st.execute("CREATE TABLE " + TABLE + " ("
+                + "id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT NOT NULL, asset_id BIGINT NOT NULL, "
+                + "type ENUM('BUY','SELL') NOT NULL, quantity DECIMAL(18,8) NOT NULL, "
+                + "price_per_unit DECIMAL(18,6) NOT NULL, total_amount DECIMAL(18,4) NOT NULL, "
+                + "executed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, INDEX (user_id))");
+            st.execute("CREATE TABLE IF NOT EXISTS bench_id_sequences "
+                + "(seq_name VARCHAR(64) PRIMARY KEY, next_val BIGINT NOT NULL)");
+            st.execute("REPLACE INTO bench_id_sequences VALUES ('" + TABLE + "', 1)");
+        }
+        conn.setAutoCommit(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS " + TABLE);
+            st.execute("DELETE FROM bench_id_sequences WHERE seq_name = '" + TABLE + "'");
+        }
+        conn.commit();
+        conn.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long insertCommit() throws SQLException {
+        long last = "pooled".equals(strategy) ? insertPooled() : insertIdentity();
+        conn.commit();
+        return last;
+    }
+
+    private long insertIdentity() throws SQLException {
+        long last = 0;
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_IDENTITY, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ROWS; i++) {
+                bind(ps, 1, i);
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                    last = keys.getLong(1);
+                }
+            }
+        }
+        return last;
+    }
+
+    private long insertPooled() throws SQLException {
+        long id = 0;
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_POOLED)) {
+            for (int i = 0; i < ROWS; i++) {
+                id = nextPooledId();
+                ps.setLong(1, id);
+                bind(ps, 2, i);
+                ps.addBatch();
+                if ((i + 1) % batchSize == 0) ps.executeBatch();
+            }
+            ps.executeBatch();
+        }
+        return id;
+    }
+
+    /** One UPDATE on the sequence row reserves the next 500 ids. */
+    private long nextPooledId() throws SQLException {
+        if (nextId >= blockEnd) {
+            try (Statement st = conn.createStatement()) {
+                st.executeUpdate("UPDATE bench_id_sequences SET next_val = LAST_INSERT_ID(next_val) + 500 "
+                    + "WHERE seq_name = '" + TABLE + "'");
+                try (ResultSet rs = st.executeQuery("SELECT LAST_INSERT_ID()")) {
+                    rs.next();
+                    blockEnd = rs.getLong(1) + 500;
+                    nextId   = rs.getLong(1);
+                }
+            }
+        }
+        return nextId++;
+    }
+
+    private static void bind(PreparedStatement ps, int from, int i) throws SQLException {
+        ps.setLong(from, 1 + (i & 63));
+        ps.setLong(from + 1, 1 + (i & 15));
+        ps.setBigDecimal(from + 2, BigDecimal.ONE);
+        ps.setBigDecimal(from + 3, new BigDecimal("101.250000"));
+        ps.setBigDecimal(from + 4, new BigDecimal("101.2500"));
+    }
+}
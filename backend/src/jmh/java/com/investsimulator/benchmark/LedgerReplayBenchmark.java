@@ -0,0 +1,90 @@
+package com.investsimulator.benchmark;
+
+import com.investsimulator.service.LedgerReplay;
+import com.investsimulator.service.PortfolioValuations;
+import com.investsimulator.service.TradeEvent;
+import com.investsimulator.service.TradeEventLog;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Full rebuild from the memory-mapped trade event log with no snapshot:
+ * every event is read and applied. The log is written once per trial into
+ * a temp directory (10M events is about 1 GB of segments).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LedgerReplayBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int events;
+
+    @Param({"10000"})
+    public int users;
+
+    private Path          dir;
+    private TradeEventLog eventLog;
+    private LedgerReplay  replay;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("ledger-bench");
+        eventLog = new TradeEventLog();
+        ReflectionTestUtils.setField(eventLog, "enabled", true);
+        ReflectionTestUtils.setField(eventLog, "dir", dir.toString());
+        ReflectionTestUtils.setField(eventLog, "segmentEvents", 1 << 20);
+        ReflectionTestUtils.invokeMethod(eventLog, "open");
+
+        SplittableRandom rnd = new SplittableRandom(42);
+        for (int i = 0; i < events; i++) {
+            long user = 1 + rnd.nextInt(users);
+            if (i % 10 == 9) {
+                eventLog.append(TradeEvent.cash(user, BigDecimal.valueOf(rnd.nextLong(1, 10_000_000_000L), 4)));
+            } else {
+                boolean sell = rnd.nextBoolean();
+                eventLog.append(TradeEvent.fill(user, 1 + rnd.nextInt(64),
+                    sell ? TradeEvent.Type.SELL : TradeEvent.Type.BUY,
+                    BigDecimal.valueOf(rnd.nextLong(1, 1_000_000_000L), 8),
+                    BigDecimal.valueOf(rnd.nextLong(1_000_000, 5_000_000_000L), 6),
+                    BigDecimal.valueOf(rnd.nextLong(1, 10_000_000_000L), 4),
+                    sell && rnd.nextInt(4) == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(rnd.nextLong(1, 10_000_000_000L), 8),
+                    BigDecimal.valueOf(rnd.nextLong(1_000_000, 5_000_000_000L), 6),
+                    BigDecimal.valueOf(rnd.nextLong(1, 10_000_000_000L), 4),
+                    sell ? BigDecimal.valueOf(rnd.nextLong(-1_000_000, 1_000_000), 4) : BigDecimal.ZERO));
+            }
+        }
+        eventLog.force();
+
+        InMemoryRepositories repos = new InMemoryRepositories();
+        PortfolioValuations valuations = repos.valuations(repos.priceBook());
+        replay = new LedgerReplay(eventLog, repos.userRepo, repos.assetRepo, repos.holdingRepo,
+            repos.portfolioRepo, valuations, repos.leaderboard(valuations), repos.userLocks(), repos.txTemplate);
+        ReflectionTestUtils.setField(replay, "dir", dir.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ReflectionTestUtils.invokeMethod(eventLog, "close");
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public LedgerReplay.State replayAll() {
+        return replay.replay();
+    }
+}
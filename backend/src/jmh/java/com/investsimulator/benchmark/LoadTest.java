@@ -0,0 +1,187 @@
+package com.investsimulator.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load test against a running server, for comparing the
+ * platform-thread and virtual-thread runtime modes.
+ *
+ * {@code -concurrency} clients each loop over: GET /api/portfolio (50%),
+ * a one-unit MARKET BUY (30%) and a one-unit MARKET SELL (20%) of
+ * {@code -asset}, as one of {@code -users} pre-registered accounts. Only
+ * requests after {@code -warmup} seconds are measured. Run it once per mode
+ * against the same database and compare the p99 column:
+ *
+ * <pre>
+ *   java -jar app.jar                                      then  LoadTest -label platform -out results.csv
+ *   java -jar app.jar --spring.profiles.active=virtual     then  LoadTest -label virtual  -out results.csv
+ * </pre>
+ *
+ * 503s are the adaptive limiter shedding load; they are counted, not timed.
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final HttpClient http = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+
+    private final String base;
+    private final long   assetId;
+
+    private final AtomicLong shed   = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private LoadTest(String base, long assetId) {
+        this.base    = base;
+        this.assetId = assetId;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opt = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) opt.put(args[i].replaceFirst("^-+", ""), args[i + 1]);
+
+        String base        = opt.getOrDefault("base", "http://localhost:8080");
+        String label       = opt.getOrDefault("label", "run");
+        int    users       = Integer.parseInt(opt.getOrDefault("users", "50"));
+        int    concurrency = Integer.parseInt(opt.getOrDefault("concurrency", "400"));
+        int    seconds     = Integer.parseInt(opt.getOrDefault("seconds", "60"));
+        int    warmup      = Integer.parseInt(opt.getOrDefault("warmup", "10"));
+        long   asset       = Long.parseLong(opt.getOrDefault("asset", "1"));
+
+        LoadTest test = new LoadTest(base, asset);
+        List<String> tokens = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) tokens.add(test.token("loadtest" + i + "@example.com"));
+        System.out.printf("%s: %d users, %d clients, %ds (+%ds warm-up) against %s%n",
+            label, users, concurrency, seconds, warmup, base);
+
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup);
+        long stopAt      = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        List<Future<long[]>> samples = new ArrayList<>(concurrency);
+        for (int c = 0; c < concurrency; c++) {
+            String token = tokens.get(c % users);
+            long   seed  = c;
+            samples.add(clients.submit(() -> test.client(token, seed, measureFrom, stopAt)));
+        }
+
+        long[] all = new long[0];
+        for (Future<long[]> f : samples) {
+            long[] s = f.get();
+            int at = all.length;
+            all = Arrays.copyOf(all, at + s.length);
+            System.arraycopy(s, 0, all, at, s.length);
+        }
+        clients.shutdown();
+        Arrays.sort(all);
+
+        String row = String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%.2f,%d,%d",
+            label, concurrency, all.length, all.length / (double) seconds,
+            ms(all, 0.50), ms(all, 0.90), ms(all, 0.99), ms(all, 0.999), ms(all, 1.0),
+            test.shed.get(), test.errors.get());
+        System.out.println("label,clients,requests,rps,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,shed_503,errors");
+        System.out.println(row);
+
+        String out = opt.get("out");
+        if (out != null) {
+            Path path = Path.of(out);
+            if (!Files.exists(path)) {
+                Files.writeString(path, "label,clients,requests,rps,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,shed_503,errors\n");
+            }
+            Files.writeString(path, row + "\n", StandardOpenOption.APPEND);
+        }
+    }
+
+    /** One client: loop until {@code stopAt}, returning latencies (ns) of measured, non-shed requests. */
+    private long[] client(String token, long seed, long measureFrom, long stopAt) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        long[] lat = new long[1024];
+        int n = 0;
+        long now;
+        while ((now = System.nanoTime()) < stopAt) {
+            int pick = rnd.nextInt(10);
+            HttpRequest req = pick < 5 ? get("/api/portfolio", token)
+                            : pick < 8 ? trade("BUY", token)
+                            :            trade("SELL", token);
+            try {
+                int status = http.send(req, HttpResponse.BodyHandlers.discarding()).statusCode();
+                long took = System.nanoTime() - now;
+                if (status == 503) {
+                    shed.incrementAndGet();
+                } else if (status >= 500) {
+                    errors.incrementAndGet();
+                } else if (now >= measureFrom) {
+                    if (n == lat.length) lat = Arrays.copyOf(lat, n * 2);
+                    lat[n++] = took;
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return Arrays.copyOf(lat, n);
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(base + path))
+            .header("Authorization", "Bearer " + token)
+            .timeout(Duration.ofSeconds(60))
+            .GET().build();
+    }
+
+    private HttpRequest trade(String side, String token) {
+        String body = "{\"assetId\":" + assetId + ",\"tradeType\":\"" + side
+            + "\",\"orderType\":\"MARKET\",\"quantity\":1}";
+        return post("/api/trade/execute", body, token);
+    }
+
+    private HttpRequest post(String path, String body, String token) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(base + path))
+            .header("Content-Type", "application/json")
+            .timeout(Duration.ofSeconds(60))
+            .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) b.header("Authorization", "Bearer " + token);
+        return b.build();
+    }
+
+    /** Sign the account up if needed, then log in. */
+    private String token(String email) throws IOException, InterruptedException {
+        String password = "loadtest-password";
+        http.send(post("/api/auth/signup", String.format(
+            "{\"fullName\":\"Load Test\",\"email\":\"%s\",\"password\":\"%s\",\"initialCapital\":100000000}",
+            email, password), null), HttpResponse.BodyHandlers.discarding());   // 400 when it already exists
+
+        HttpResponse<String> login = http.send(post("/api/auth/login",
+            String.format("{\"email\":\"%s\",\"password\":\"%s\"}", email, password), null),
+            HttpResponse.BodyHandlers.ofString());
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Login failed for " + email + ": " + login.body());
+        }
+        JsonNode root = JSON.readTree(login.body());
+        return root.path("data").path("token").asText();
+    }
+
+    private static double ms(long[] sorted, double q) {
+        if (sorted.length == 0) return 0;
+        int i = (int) Math.min(sorted.length - 1, Math.ceil(q * sorted.length) - 1);
+        return sorted[Math.max(0, i)] / 1e6;
+    }
+}
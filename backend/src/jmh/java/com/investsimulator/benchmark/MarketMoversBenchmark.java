@@ -0,0 +1,51 @@
+package com.investsimulator.benchmark;
+
+import com.investsimulator.service.MarketMovers;
+import com.investsimulator.service.PriceBook;
+import com.investsimulator.service.PriceTickEvent;
+import com.investsimulator.service.TickEngine;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-ranking gainers / losers / movers overall, per type and per sector
+ * after one tick, over {@code assets} active assets (12 sectors).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarketMoversBenchmark {
+
+    @Param({"10000", "100000"})
+    public int assets;
+
+    @Param({"10", "50"})
+    public int maxK;
+
+    private MarketMovers   movers;
+    private PriceTickEvent tick;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        InMemoryRepositories repos = new InMemoryRepositories().withAssets(assets, 42);
+        PriceBook book = repos.priceBook();
+        TickEngine engine = repos.tickEngine(Integer.MAX_VALUE);
+        tick = book.advance(engine::step);
+        ReflectionTestUtils.invokeMethod(engine, "stop");
+
+        movers = new MarketMovers(repos.assetRepo, book);
+        ReflectionTestUtils.setField(movers, "maxK", maxK);
+        movers.load();
+    }
+
+    @Benchmark
+    public MarketMovers onTick() {
+        movers.onTick(tick);
+        return movers;
+    }
+}
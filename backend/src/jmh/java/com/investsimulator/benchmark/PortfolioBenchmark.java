@@ -0,0 +1,66 @@
+package com.investsimulator.benchmark;
+
+import com.investsimulator.dto.TradeRequest;
+import com.investsimulator.service.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code PortfolioService.getPortfolio} for a user holding {@code positions}
+ * assets, built from the maintained valuation snapshot. Each position is one
+ * mapHolding call, so the per-position slope between the parameter values is
+ * the cost of mapHolding. {@code tick} measures re-marking every position on
+ * a price tick.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PortfolioBenchmark {
+
+    @Param({"1", "20", "200"})
+    public int positions;
+
+    private PriceBook           book;
+    private TickEngine          engine;
+    private PortfolioValuations valuations;
+    private PortfolioService    portfolio;
+    private long                userId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        InMemoryRepositories repos = new InMemoryRepositories()
+            .withUsers(1, new BigDecimal("1000000000000.0000"))
+            .withAssets(positions, 42);
+        book       = repos.priceBook();
+        engine     = repos.tickEngine(Integer.MAX_VALUE);
+        valuations = repos.valuations(book);
+        portfolio  = repos.portfolioService(valuations);
+        userId     = repos.users.keySet().iterator().next();
+
+        TradingService trading = repos.tradingService(book, valuations);
+        for (long assetId : repos.assets.keySet()) {
+            trading.executeTrade(userId, new TradeRequest(assetId, "BUY", "MARKET", BigDecimal.TEN, null));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(engine, "stop");
+    }
+
+    @Benchmark
+    public Object getPortfolio() {
+        return portfolio.getPortfolio(userId);
+    }
+
+    @Benchmark
+    public void tick() {
+        valuations.onTick(book.advance(engine::step));
+    }
+}
@@ -0,0 +1,116 @@
+package com.investsimulator.benchmark;
+
+import com.investsimulator.service.PriceBookWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full price flush of {@code assets} moved quotes against a real MySQL,
+ * through {@link PriceBookWriter#write} with each strategy, in chunks of
+ * {@code batchSize} rows. Every invocation moves every price, so no row is
+ * a no-op update. The {@code rows} counter is rows written per second.
+ *
+ * Needs a database; it creates and drops a scratch schema,
+ * {@code invest_bench}, holding its own asset_quotes table:
+ * <pre>
+ * ./mvnw -Pbenchmarks test-compile exec:exec -Djmh.args="PriceFlush -jvmArgsAppend \
+ *   -Djdbc.url=jdbc:mysql://localhost:3306/invest_simulator?rewriteBatchedStatements=true"
+ * </pre>
+ * jdbc.user / jdbc.password default to root / invest123. A throwaway
+ * {@code docker run -p 3306:3306 -e MYSQL_ROOT_PASSWORD=invest123 mysql:8.0}
+ * is enough.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PriceFlushBenchmark {
+
+    private static final String SCHEMA = "invest_bench";
+
+    @Param({"1000", "10000", "100000"})
+    public int assets;
+
+    @Param({"BATCH", "UPSERT", "JOIN"})
+    public PriceBookWriter.Strategy strategy;
+
+    @Param({"500"})
+    public int batchSize;
+
+    private SingleConnectionDataSource dataSource;
+    private PriceBookWriter writer;
+    private final List<List<Object[]>> ticks = new ArrayList<>();
+    private int next;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Rows {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String url = System.getProperty("jdbc.url");
+        if (url == null) {
+            throw new IllegalStateException("Set -Djdbc.url (see class comment) to run this benchmark");
+        }
+        dataSource = new SingleConnectionDataSource(url,
+            System.getProperty("jdbc.user", "root"), System.getProperty("jdbc.password", "invest123"), true);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE DATABASE IF NOT EXISTS " + SCHEMA);
+        jdbc.execute("USE " + SCHEMA);
+        jdbc.execute("DROP TABLE IF EXISTS asset_quotes");
+        jdbc.execute("CREATE TABLE asset_quotes (asset_id BIGINT PRIMARY KEY, "
+            + "current_price DECIMAL(18,6) NOT NULL DEFAULT 0.0, price_change_pct DECIMAL(8,4) NOT NULL DEFAULT 0.0, "
+            + "updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+
+        // Two alternating ticks, so every flush changes every row
+        for (int t = 0; t < 2; t++) {
+            List<Object[]> rows = new ArrayList<>(assets);
+            Timestamp at = new Timestamp(System.currentTimeMillis() + t * 1000L);
+            for (int id = 1; id <= assets; id++) {
+                BigDecimal price = BigDecimal.valueOf(100 + id % 1000 + t * 0.5).setScale(6, RoundingMode.HALF_UP);
+                rows.add(new Object[] { price, BigDecimal.valueOf(t == 0 ? 0.5 : -0.5).setScale(4), at, (long) id });
+            }
+            ticks.add(rows);
+        }
+        writer = new PriceBookWriter(null, jdbc, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(writer, "batchSize", batchSize);
+        ReflectionTestUtils.setField(writer, "strategy", strategy);
+        ReflectionTestUtils.invokeMethod(writer, "init");
+
+        // Seed the rows; UPSERT inserts them, the others need them present
+        jdbc.batchUpdate("INSERT INTO asset_quotes (asset_id) VALUES (?)",
+            ticks.get(0).stream().map(r -> new Object[] { r[3] }).toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        new JdbcTemplate(dataSource).execute("DROP SCHEMA IF EXISTS " + SCHEMA);
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public void flush(Rows counter) {
+        List<Object[]> rows = ticks.get(next++ & 1);
+        writer.write(rows);
+        counter.rows += rows.size();
+    }
+}
@@ -0,0 +1,52 @@
+package com.investsimulator.benchmark;
+
+import com.investsimulator.service.PriceBook;
+import com.investsimulator.service.ScenarioEngine;
+import com.investsimulator.service.TickEngine;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One sequential tick across {@code assets} assets in 12 sectors, with
+ * independent shocks ({@code scenario=false}) and with the sector-correlated,
+ * regime-switching, jumping scenario. The difference is the cost of the
+ * correlated draw. With {@code -prof gc}, {@code gc.alloc.rate.norm} should
+ * not grow with {@code assets} beyond the two new price columns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScenarioBenchmark {
+
+    @Param({"10000", "100000"})
+    public int assets;
+
+    @Param({"false", "true"})
+    public boolean scenario;
+
+    private PriceBook  book;
+    private TickEngine engine;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        InMemoryRepositories repos = new InMemoryRepositories().withAssets(assets, 42);
+        ScenarioEngine s = repos.scenario(scenario);
+        book   = repos.priceBook();
+        engine = repos.tickEngine(Integer.MAX_VALUE, s);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(engine, "stop");
+    }
+
+    @Benchmark
+    public Object tick() {
+        return book.advance(engine::step);
+    }
+}
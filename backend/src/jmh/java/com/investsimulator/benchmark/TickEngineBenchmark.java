@@ -0,0 +1,48 @@
+package com.investsimulator.benchmark;
+
+import com.investsimulator.service.PriceBook;
+import com.investsimulator.service.TickEngine;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One simulation tick across {@code assets} active assets, on the calling
+ * thread ({@code parallel=false}) and chunked on the engine's ForkJoinPool.
+ * Includes publishing the new {@link PriceBook.Quotes} generation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TickEngineBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int assets;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private PriceBook  book;
+    private TickEngine engine;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        InMemoryRepositories repos = new InMemoryRepositories().withAssets(assets, 42);
+        book   = repos.priceBook();
+        engine = repos.tickEngine(parallel ? 0 : Integer.MAX_VALUE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(engine, "stop");
+    }
+
+    @Benchmark
+    public Object tick() {
+        return book.advance(engine::step);
+    }
+}
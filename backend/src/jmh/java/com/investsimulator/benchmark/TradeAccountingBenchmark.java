@@ -0,0 +1,62 @@
+package com.investsimulator.benchmark;
+
+import com.investsimulator.service.TradeAccounting;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BigDecimal maths on every fill: trade value, weighted-average buy price
+ * and realized P&L, over pre-generated inputs at the column scales.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TradeAccountingBenchmark {
+
+    private static final int N = 1024;
+
+    private final BigDecimal[] heldQty = new BigDecimal[N];
+    private final BigDecimal[] heldAvg = new BigDecimal[N];
+    private final BigDecimal[] qty     = new BigDecimal[N];
+    private final BigDecimal[] price   = new BigDecimal[N];
+    private int i;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom rnd = new SplittableRandom(42);
+        for (int k = 0; k < N; k++) {
+            heldQty[k] = BigDecimal.valueOf(rnd.nextLong(1, 10_000_000_000L), 8);
+            heldAvg[k] = BigDecimal.valueOf(rnd.nextLong(1_000_000, 5_000_000_000L), 6);
+            qty[k]     = BigDecimal.valueOf(rnd.nextLong(1, 1_000_000_000L), 8);
+            price[k]   = BigDecimal.valueOf(rnd.nextLong(1_000_000, 5_000_000_000L), 6);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal notional() {
+        int k = next();
+        return TradeAccounting.notional(price[k], qty[k]);
+    }
+
+    @Benchmark
+    public BigDecimal weightedAverage() {
+        int k = next();
+        return TradeAccounting.weightedAverage(heldQty[k], heldAvg[k], qty[k], price[k]);
+    }
+
+    @Benchmark
+    public BigDecimal realizedPnl() {
+        int k = next();
+        return TradeAccounting.realizedPnl(price[k], heldAvg[k], qty[k]);
+    }
+
+    private int next() {
+        return i = (i + 1) & (N - 1);
+    }
+}
@@ -0,0 +1,98 @@
+package com.investsimulator.benchmark;
+
+import com.investsimulator.dto.TradeRequest;
+import com.investsimulator.model.*;
+import com.investsimulator.service.TradingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress benchmark for per-user serialisation in TradingService.
+ *
+ * Eight threads hammer {@code users} accounts with BUY/SELL round trips.
+ * With users=1 every order contends on one account; with users=64 the
+ * stripes spread the load. On tear-down each account is checked against its
+ * ledger: cash must equal initial capital minus buys plus sells, holdings
+ * must equal bought minus sold, and the balance must never go negative.
+ * Any lost update fails the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class TradeConcurrencyBenchmark {
+
+    private static final BigDecimal CAPITAL = new BigDecimal("1000000000.0000");
+    private static final BigDecimal ONE     = BigDecimal.ONE;
+
+    @Param({"1", "8", "64"})
+    public int users;
+
+    private InMemoryRepositories repos;
+    private TradingService       trading;
+    private long                 assetId;
+    private final AtomicInteger  threadSeq = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        repos   = new InMemoryRepositories().withUsers(users, CAPITAL).withAssets(1, 42);
+        trading = repos.tradingService(repos.priceBook());
+        assetId = repos.assets.keySet().iterator().next();
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+        long userId;
+
+        @Setup(Level.Trial)
+        public void pick(TradeConcurrencyBenchmark bench) {
+            Long[] ids = bench.repos.users.keySet().toArray(new Long[0]);
+            userId = ids[bench.threadSeq.getAndIncrement() % ids.length];
+        }
+    }
+
+    @Benchmark
+    public boolean buyThenSell(Caller caller) {
+        boolean bought = trading.executeTrade(caller.userId,
+            new TradeRequest(assetId, "BUY", "MARKET", ONE, null)).success();
+        boolean sold = trading.executeTrade(caller.userId,
+            new TradeRequest(assetId, "SELL", "MARKET", ONE, null)).success();
+        return bought & sold;
+    }
+
+    @TearDown(Level.Trial)
+    public void verifyLedger() {
+        for (User u : repos.users.values()) {
+            BigDecimal cash = u.getInitialCapital();
+            BigDecimal qty  = BigDecimal.ZERO;
+            for (Transaction tx : repos.ledger) {
+                if (!tx.getUser().getId().equals(u.getId())) continue;
+                if (tx.getType() == Transaction.TradeType.BUY) {
+                    cash = cash.subtract(tx.getTotalAmount());
+                    qty  = qty.add(tx.getQuantity());
+                } else {
+                    cash = cash.add(tx.getTotalAmount());
+                    qty  = qty.subtract(tx.getQuantity());
+                }
+            }
+
+            Map<Long, Holding> held = repos.holdings.getOrDefault(u.getId(), Map.of());
+            BigDecimal heldQty = held.containsKey(assetId) ? held.get(assetId).getQuantity() : BigDecimal.ZERO;
+
+            if (u.getVirtualBalance().signum() < 0
+                || u.getVirtualBalance().compareTo(cash) != 0
+                || heldQty.compareTo(qty) != 0) {
+                throw new IllegalStateException(String.format(
+                    "Corrupted account %d: balance=%s expected=%s holding=%s expected=%s",
+                    u.getId(), u.getVirtualBalance(), cash, heldQty, qty));
+            }
+        }
+    }
+}
@@ -9,11 +9,16 @@ import com.investsimulator.service.*;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -33,6 +38,7 @@ public class AuthController {
     private final PortfolioRepository portfolioRepo;
     private final JwtService          jwtService;
     private final PasswordEncoder     passwordEncoder;
+    private final Leaderboard         leaderboard;
 
     @PostMapping("/signup")
     public ResponseEntity<ApiResponse<AuthResponse>> signup(@Valid @RequestBody SignupRequest req) {
@@ -52,6 +58,7 @@ public class AuthController {
 
         // Auto-create portfolio
         portfolioRepo.save(Portfolio.builder().user(user).build());
+        leaderboard.register(user);
 
         String token = jwtService.generateToken(user.getEmail(), user.getId(), user.getRole().name());
         log.info("New user registered: {}", user.getEmail());
@@ -111,65 +118,102 @@ public class AuthController {
 @RequiredArgsConstructor
 public class MarketController {
 
-    private final AssetRepository         assetRepo;
+    private final AssetCatalog            assetCatalog;
     private final PriceSimulationService  priceService;
+    private final CandleService           candleService;
+    private final PriceStreamService      priceStream;
+    private final AssetSearchIndex        searchIndex;
+    private final MarketMovers            movers;
 
     @GetMapping("/assets")
     public ResponseEntity<ApiResponse<List<AssetDTO>>> getAllAssets(
         @RequestParam(required = false) String type,
-        @RequestParam(required = false) String search
+        @RequestParam(required = false) String search,
+        @RequestParam(defaultValue = "50") int limit
     ) {
-        List<Asset> assets;
-
         if (search != null && !search.isBlank()) {
-            assets = assetRepo.searchAssets(search.trim());
-        } else if (type != null && !type.isBlank()) {
-            assets = assetRepo.findByTypeAndIsActiveTrue(
-                Asset.AssetType.valueOf(type.toUpperCase()));
-        } else {
-            assets = assetRepo.findAllByIsActiveTrue();
+            int capped = Math.max(1, Math.min(limit, 500));
+            return ResponseEntity.ok(ApiResponse.ok(searchIndex.search(search, capped)));
         }
 
-        List<AssetDTO> dtos = assets.stream().map(this::mapAsset).collect(Collectors.toList());
+        Asset.AssetType assetType = type != null && !type.isBlank()
+            ? Asset.AssetType.valueOf(type.toUpperCase()) : null;
+        List<AssetDTO> dtos = assetCatalog.active(assetType).stream()
+            .map(assetCatalog::toDto).collect(Collectors.toList());
         return ResponseEntity.ok(ApiResponse.ok(dtos));
     }
 
     @GetMapping("/assets/{id}")
     public ResponseEntity<ApiResponse<AssetDTO>> getAsset(@PathVariable Long id) {
-        return assetRepo.findById(id)
-            .map(a -> ResponseEntity.ok(ApiResponse.ok(mapAsset(a))))
+        return assetCatalog.byId(id)
+            .map(a -> ResponseEntity.ok(ApiResponse.ok(assetCatalog.toDto(a))))
             .orElseThrow(() -> new ResourceNotFoundException("Asset not found: " + id));
     }
 
     @GetMapping("/assets/symbol/{symbol}")
     public ResponseEntity<ApiResponse<AssetDTO>> getAssetBySymbol(@PathVariable String symbol) {
-        return assetRepo.findBySymbol(symbol.toUpperCase())
-            .map(a -> ResponseEntity.ok(ApiResponse.ok(mapAsset(a))))
+        return assetCatalog.bySymbol(symbol)
+            .map(a -> ResponseEntity.ok(ApiResponse.ok(assetCatalog.toDto(a))))
             .orElseThrow(() -> new ResourceNotFoundException("Asset not found: " + symbol));
     }
 
+    @GetMapping("/assets/{id}/candles")
+    public ResponseEntity<ApiResponse<List<CandleDTO>>> getCandles(
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "1m") String res,
+        @RequestParam(required = false) Long from,
+        @RequestParam(required = false) Long to,
+        @RequestParam(defaultValue = "300") int limit
+    ) {
+        if (assetCatalog.byId(id).isEmpty()) {
+            throw new ResourceNotFoundException("Asset not found: " + id);
+        }
+        return ResponseEntity.ok(ApiResponse.ok(candleService.getCandles(id, res, from, to, limit)));
+    }
+
     @GetMapping("/prices")
     public ResponseEntity<ApiResponse<Map<Long, BigDecimal>>> getLivePrices() {
         return ResponseEntity.ok(ApiResponse.ok(priceService.getCurrentPrices()));
     }
 
-    @GetMapping("/movers")
-    public ResponseEntity<ApiResponse<List<AssetDTO>>> getTopMovers() {
-        var pageable = org.springframework.data.domain.PageRequest.of(0, 10);
-        List<AssetDTO> movers = assetRepo.findTopMovers(pageable)
-            .stream().map(this::mapAsset).collect(Collectors.toList());
-        return ResponseEntity.ok(ApiResponse.ok(movers));
+    /**
+     * Server-sent events: one "prices" event per tick carrying only the
+     * assets that moved. Optional {@code assets=1,2,3} narrows the feed.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPrices(@RequestParam(required = false) List<Long> assets) {
+        return priceStream.subscribe(assets);
     }
 
-    private AssetDTO mapAsset(Asset a) {
-        return new AssetDTO(a.getId(), a.getSymbol(), a.getName(),
-            a.getType().name(), a.getSector(), a.getCurrentPrice(), a.getPriceChangePct());
+    /**
+     * Top movers from the per-tick ranking: {@code by=active} (largest
+     * absolute change, the default), {@code gainers} or {@code losers},
+     * optionally within a {@code type} or {@code sector}.
+     */
+    @GetMapping("/movers")
+    public ResponseEntity<ApiResponse<List<AssetDTO>>> getTopMovers(
+        @RequestParam(defaultValue = "active") String by,
+        @RequestParam(required = false) String type,
+        @RequestParam(required = false) String sector,
+        @RequestParam(defaultValue = "10") int k
+    ) {
+        MarketMovers.Ranking ranking;
+        Asset.AssetType assetType;
+        try {
+            ranking   = MarketMovers.Ranking.valueOf(by.toUpperCase());
+            assetType = type != null && !type.isBlank() ? Asset.AssetType.valueOf(type.toUpperCase()) : null;
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("by must be active, gainers or losers; type must be STOCK or CRYPTO");
+        }
+        int capped = Math.max(1, Math.min(k, movers.maxK()));
+        String s = sector != null && !sector.isBlank() ? sector : null;
+        return ResponseEntity.ok(ApiResponse.ok(movers.top(ranking, assetType, s, capped)));
     }
 }
 
 
 // ============================================================
-// TradeController — POST /api/trade/execute
+// TradeController — POST /api/trade/execute, /api/trade/batch, /api/trade/orders
 // ============================================================
 @RestController
 @RequestMapping("/api/trade")
@@ -194,19 +238,52 @@ public class TradeController {
             return ResponseEntity.badRequest().body(ApiResponse.error(response.message()));
         }
     }
+
+    @PostMapping("/batch")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<BatchTradeResponse>> executeBatch(
+        @Valid @RequestBody BatchTradeRequest req,
+        Authentication auth
+    ) {
+        Long userId = ((CustomUserPrincipal) auth.getPrincipal()).getUserId();
+        BatchTradeResponse response = tradingService.executeBatch(userId, req.orders());
+        String msg = String.format("%d filled, %d rejected", response.filled(), response.rejected());
+        return ResponseEntity.ok(ApiResponse.ok(msg, response));
+    }
+
+    @GetMapping("/orders")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<List<LimitOrderDTO>>> getOrders(
+        @RequestParam(defaultValue = "false") boolean openOnly,
+        Authentication auth
+    ) {
+        Long userId = ((CustomUserPrincipal) auth.getPrincipal()).getUserId();
+        return ResponseEntity.ok(ApiResponse.ok(tradingService.getLimitOrders(userId, openOnly)));
+    }
+
+    @DeleteMapping("/orders/{id}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<LimitOrderDTO>> cancelOrder(
+        @PathVariable Long id,
+        Authentication auth
+    ) {
+        Long userId = ((CustomUserPrincipal) auth.getPrincipal()).getUserId();
+        return ResponseEntity.ok(ApiResponse.ok("Order cancelled", tradingService.cancelLimitOrder(userId, id)));
+    }
 }
 
 
 // ============================================================
-// PortfolioController — GET /api/portfolio, /api/portfolio/history
+// PortfolioController — GET /api/portfolio, /api/portfolio/history[/export]
 // ============================================================
 @RestController
 @RequestMapping("/api/portfolio")
 @RequiredArgsConstructor
 public class PortfolioController {
 
-    private final PortfolioService  portfolioService;
-    private final WatchlistService  watchlistService;
+    private final PortfolioService    portfolioService;
+    private final WatchlistService    watchlistService;
+    private final TransactionExporter exporter;
 
     @GetMapping
     @PreAuthorize("isAuthenticated()")
@@ -217,17 +294,49 @@ public class PortfolioController {
 
     @GetMapping("/history")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<ApiResponse<List<TransactionDTO>>> getHistory(
-        @RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<ApiResponse<TransactionPageDTO>> getHistory(
+        @RequestParam(required = false) String cursor,
         @RequestParam(defaultValue = "50") int size,
         Authentication auth
     ) {
         Long userId = ((CustomUserPrincipal) auth.getPrincipal()).getUserId();
         return ResponseEntity.ok(ApiResponse.ok(
-            portfolioService.getTransactionHistory(userId, page, Math.min(size, 200))
+            portfolioService.getTransactionHistory(userId, cursor, Math.max(1, Math.min(size, 200)))
         ));
     }
 
+    /** Whole history as a download, streamed from a database cursor. */
+    @GetMapping("/history/export")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+        @RequestParam(defaultValue = "csv") String format,
+        Authentication auth
+    ) {
+        Long userId = ((CustomUserPrincipal) auth.getPrincipal()).getUserId();
+        TransactionExporter.Format f;
+        try {
+            f = TransactionExporter.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("format must be csv or ndjson");
+        }
+        if (!exporter.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .build();
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                exporter.export(userId, f, out);
+            } finally {
+                exporter.release();
+            }
+        };
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions." + f.extension + "\"")
+            .contentType(f.mediaType)
+            .body(body);
+    }
+
     @GetMapping("/watchlist")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<ApiResponse<List<AssetDTO>>> getWatchlist(Authentication auth) {
@@ -250,7 +359,78 @@ public class PortfolioController {
 
 
 // ============================================================
-// AdminController — GET/PUT /api/admin/**
+// LeaderboardController — GET /api/leaderboard, /api/leaderboard/me
+// ============================================================
+@RestController
+@RequestMapping("/api/leaderboard")
+@RequiredArgsConstructor
+public class LeaderboardController {
+
+    private final Leaderboard leaderboard;
+
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<LeaderboardPageDTO>> getPage(
+        @RequestParam(defaultValue = "equity") String by,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "50") int size
+    ) {
+        return ResponseEntity.ok(ApiResponse.ok(
+            leaderboard.page(ranking(by), Math.max(0, page), Math.max(1, Math.min(size, 200)))
+        ));
+    }
+
+    @GetMapping("/me")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<LeaderboardEntryDTO>> getMine(
+        @RequestParam(defaultValue = "equity") String by,
+        Authentication auth
+    ) {
+        Long userId = ((CustomUserPrincipal) auth.getPrincipal()).getUserId();
+        LeaderboardEntryDTO mine = leaderboard.rankOf(ranking(by), userId)
+            .orElseThrow(() -> new ResourceNotFoundException("You are not on the leaderboard"));
+        return ResponseEntity.ok(ApiResponse.ok(mine));
+    }
+
+    private static Leaderboard.Ranking ranking(String by) {
+        try {
+            return Leaderboard.Ranking.valueOf(by.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("by must be equity or return");
+        }
+    }
+}
+
+
+// ============================================================
+// BacktestController — POST /api/backtest, GET /api/backtest/strategies
+// ============================================================
+@RestController
+@RequestMapping("/api/backtest")
+@RequiredArgsConstructor
+public class BacktestController {
+
+    private final Backtester backtester;
+
+    @GetMapping("/strategies")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<List<BacktestStrategyDTO>>> getStrategies() {
+        return ResponseEntity.ok(ApiResponse.ok(backtester.strategies()));
+    }
+
+    /** Runs synchronously; nothing is written. */
+    @PostMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<BacktestResultDTO>> run(@Valid @RequestBody BacktestRequest req) {
+        BacktestResultDTO result = backtester.run(req);
+        return ResponseEntity.ok(ApiResponse.ok(
+            String.format("Backtest finished in %d ms", result.elapsedMillis()), result));
+    }
+}
+
+
+// ============================================================
+// AdminController — GET/PUT/POST /api/admin/**
 // ============================================================
 @RestController
 @RequestMapping("/api/admin")
@@ -261,6 +441,11 @@ public class AdminController {
 
     private final UserRepository  userRepo;
     private final AssetRepository assetRepo;
+    private final AssetCatalog    assetCatalog;
+    private final TradingService  tradingService;
+    private final LedgerReplay    ledgerReplay;
+    private final Leaderboard     leaderboard;
+    private final ScenarioEngine  scenario;
 
     @GetMapping("/users")
     public ResponseEntity<ApiResponse<List<UserSummaryDTO>>> getAllUsers() {
@@ -276,20 +461,32 @@ public class AdminController {
 
     @PutMapping("/users/{id}/reset")
     public ResponseEntity<ApiResponse<String>> resetUserBalance(@PathVariable Long id) {
-        User user = userRepo.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        user.setVirtualBalance(user.getInitialCapital());
-        userRepo.save(user);
+        User user = tradingService.resetBalance(id);
         log.info("Admin reset balance for user: {}", user.getEmail());
         return ResponseEntity.ok(ApiResponse.ok("Balance reset to ₹" + user.getInitialCapital(), "done"));
     }
 
+    @PostMapping("/users/{id}/rebuild")
+    public ResponseEntity<ApiResponse<String>> rebuildUser(@PathVariable Long id) {
+        ledgerReplay.rebuildUser(id);
+        log.info("Admin rebuilt user {} from the trade ledger", id);
+        return ResponseEntity.ok(ApiResponse.ok("User rebuilt from trade ledger", "done"));
+    }
+
+    @GetMapping("/ledger/verify")
+    public ResponseEntity<ApiResponse<LedgerReportDTO>> verifyLedger() {
+        LedgerReportDTO report = ledgerReplay.verify();
+        String msg = report.drift().isEmpty() ? "Ledger matches database" : report.drift().size() + " differences";
+        return ResponseEntity.ok(ApiResponse.ok(msg, report));
+    }
+
     @PutMapping("/users/{id}/toggle")
     public ResponseEntity<ApiResponse<String>> toggleUserStatus(@PathVariable Long id) {
         User user = userRepo.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         user.setIsActive(!user.getIsActive());
         userRepo.save(user);
+        leaderboard.register(user);
         String status = user.getIsActive() ? "activated" : "deactivated";
         return ResponseEntity.ok(ApiResponse.ok("User " + status, status));
     }
@@ -297,6 +494,7 @@ public class AdminController {
     @PostMapping("/assets")
     public ResponseEntity<ApiResponse<Asset>> addAsset(@RequestBody Asset asset) {
         Asset saved = assetRepo.save(asset);
+        assetCatalog.refresh(saved);
         return ResponseEntity.status(201).body(ApiResponse.ok("Asset added", saved));
     }
 
@@ -306,7 +504,39 @@ public class AdminController {
             .orElseThrow(() -> new ResourceNotFoundException("Asset not found"));
         asset.setIsActive(!asset.getIsActive());
         assetRepo.save(asset);
+        assetCatalog.refresh(asset);
         return ResponseEntity.ok(ApiResponse.ok(
             "Asset " + (asset.getIsActive() ? "enabled" : "disabled"), "done"));
     }
+
+    @GetMapping("/scenario")
+    public ResponseEntity<ApiResponse<ScenarioDTO>> getScenario() {
+        return ResponseEntity.ok(ApiResponse.ok(scenarioDto()));
+    }
+
+    @PutMapping("/scenario/regime/{regime}")
+    public ResponseEntity<ApiResponse<ScenarioDTO>> setRegime(@PathVariable String regime) {
+        ScenarioEngine.Regime r;
+        try {
+            r = ScenarioEngine.Regime.valueOf(regime.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Unknown regime: " + regime);
+        }
+        scenario.setRegime(r);
+        log.info("Admin forced market regime {}", r);
+        return ResponseEntity.ok(ApiResponse.ok("Regime set to " + r, scenarioDto()));
+    }
+
+    /** Restart the shock stream; without {@code seed} a fresh one is drawn and returned. */
+    @PostMapping("/scenario/reseed")
+    public ResponseEntity<ApiResponse<ScenarioDTO>> reseed(@RequestParam(defaultValue = "0") long seed) {
+        long used = scenario.reseed(seed);
+        log.info("Admin reseeded the market scenario with {}", used);
+        return ResponseEntity.ok(ApiResponse.ok("Scenario reseeded", scenarioDto()));
+    }
+
+    private ScenarioDTO scenarioDto() {
+        return new ScenarioDTO(scenario.isEnabled(), scenario.seed(), scenario.regime().name(),
+            scenario.regimeTicks(), scenario.factorCount());
+    }
 }
@@ -1,8 +1,10 @@
 package com.investsimulator.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 // ============================================================
 // Authentication DTOs
@@ -76,6 +78,33 @@ public record TradeResponse(
     TransactionDTO transaction
 ) {}
 
+public record BatchTradeRequest(
+    @NotEmpty(message = "At least one order is required")
+    @Size(max = 500, message = "At most 500 orders per batch")
+    List<@Valid TradeRequest> orders
+) {}
+
+public record BatchTradeResponse(
+    int filled,
+    int rejected,
+    BigDecimal newBalance,
+    List<TradeResponse> results     // one per order, in request order
+) {}
+
+public record LimitOrderDTO(
+    Long id,
+    Long assetId,
+    String assetSymbol,
+    String side,
+    BigDecimal quantity,
+    BigDecimal limitPrice,
+    BigDecimal reservedAmount,
+    String status,
+    BigDecimal fillPrice,
+    String createdAt,
+    String closedAt
+) {}
+
 // ============================================================
 // Market DTOs
 // ============================================================
@@ -98,6 +127,15 @@ public record PriceUpdateDTO(
     long timestamp
 ) {}
 
+public record CandleDTO(
+    long time,
+    BigDecimal open,
+    BigDecimal high,
+    BigDecimal low,
+    BigDecimal close,
+    long volume
+) {}
+
 // ============================================================
 // Portfolio DTOs
 // ============================================================
@@ -144,6 +182,92 @@ public record TransactionDTO(
     String executedAt
 ) {}
 
+public record TransactionPageDTO(
+    List<TransactionDTO> items,
+    String nextCursor             // pass back as ?cursor= for the next page; null on the last page
+) {}
+
+// ============================================================
+// Leaderboard DTOs
+// ============================================================
+
+public record LeaderboardEntryDTO(
+    long rank,                    // 1-based
+    Long userId,
+    String fullName,
+    BigDecimal equity,            // cash + market value of open positions
+    BigDecimal returnPct          // equity vs initial capital, in %
+) {}
+
+public record LeaderboardPageDTO(
+    String by,                    // EQUITY or RETURN
+    int page,
+    int size,
+    long totalUsers,
+    String asOf,                  // when the ranking was last refreshed
+    List<LeaderboardEntryDTO> entries
+) {}
+
+// ============================================================
+// Backtest DTOs
+// ============================================================
+
+public record BacktestRequest(
+    @NotBlank(message = "Strategy is required")
+    String strategy,
+
+    Map<String, Double> params,   // strategy parameters, see GET /api/backtest/strategies
+
+    @Pattern(regexp = "SEEDED|HISTORY", message = "Source must be SEEDED or HISTORY")
+    String source,                // default SEEDED
+
+    Long seed,                    // SEEDED: random-walk seed (default 42)
+
+    @Positive(message = "Ticks must be positive")
+    Long ticks,                   // SEEDED: ticks per asset (default 86400)
+
+    String from,                  // HISTORY: ISO date-time range of price_history
+    String to,
+
+    List<Long> assetIds,          // default: every active asset
+
+    @Positive(message = "Capital must be positive")
+    @Max(value = 100000000, message = "Capital cannot exceed ₹10 Crore")
+    BigDecimal initialCapital     // split equally across the assets; default 1,000,000
+) {}
+
+public record BacktestSleeveDTO(
+    Long assetId,
+    String symbol,
+    long ticks,
+    long trades,
+    long rejectedOrders,          // refused for balance / holdings, as live trading would
+    BigDecimal finalEquity,
+    BigDecimal realizedPnl,
+    BigDecimal returnPct
+) {}
+
+public record BacktestResultDTO(
+    String strategy,
+    String source,
+    int assets,
+    long ticks,                   // prices replayed, all assets
+    long trades,
+    BigDecimal initialCapital,
+    BigDecimal finalEquity,
+    BigDecimal realizedPnl,
+    BigDecimal returnPct,
+    BigDecimal maxDrawdownPct,    // over the equity curve
+    long elapsedMillis,
+    List<BigDecimal> equityCurve, // whole portfolio, evenly spaced over the run
+    List<BacktestSleeveDTO> sleeves
+) {}
+
+public record BacktestStrategyDTO(
+    String name,
+    String description
+) {}
+
 // ============================================================
 // Admin DTOs
 // ============================================================
@@ -160,6 +284,23 @@ public record UserSummaryDTO(
     String lastLogin
 ) {}
 
+public record LedgerReportDTO(
+    long lastSeq,
+    long snapshotSeq,
+    long eventsReplayed,          // log tail applied on top of the snapshot
+    long replayMillis,
+    int usersInLedger,
+    List<String> drift            // empty when the database matches the log
+) {}
+
+public record ScenarioDTO(
+    boolean enabled,
+    long seed,                    // replay with app.scenario.seed or POST /api/admin/scenario/reseed
+    String regime,
+    long regimeTicks,
+    int factors                   // sectors + 1 for assets without one
+) {}
+
 public record ApiResponse<T>(
     boolean success,
     String message,
@@ -2,15 +2,25 @@ package com.investsimulator.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/**
+ * Metadata lives in {@code assets}; the fast-moving quote columns live in
+ * the narrow {@code asset_quotes} row joined on the id, which is all the
+ * price write-behind touches ({@link com.investsimulator.service.PriceBookWriter}).
+ * {@code @DynamicUpdate} keeps admin edits to the changed metadata columns,
+ * so they never write back a stale quote.
+ */
 @Entity
 @Table(name = "assets", indexes = {
     @Index(name = "idx_symbol",  columnList = "symbol"),
     @Index(name = "idx_type",    columnList = "type"),
     @Index(name = "idx_active",  columnList = "is_active")
 })
+@SecondaryTable(name = Asset.QUOTES, pkJoinColumns = @PrimaryKeyJoinColumn(name = "asset_id"))
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,6 +28,8 @@ import java.time.LocalDateTime;
 @Builder
 public class Asset {
 
+    public static final String QUOTES = "asset_quotes";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -39,14 +51,17 @@ public class Asset {
     @Builder.Default
     private BigDecimal basePrice = BigDecimal.ZERO;
 
-    @Column(name = "current_price", nullable = false, precision = 18, scale = 6)
+    @Column(name = "current_price", table = QUOTES, nullable = false, precision = 18, scale = 6)
     @Builder.Default
     private BigDecimal currentPrice = BigDecimal.ZERO;
 
-    @Column(name = "price_change_pct", precision = 8, scale = 4)
+    @Column(name = "price_change_pct", table = QUOTES, precision = 8, scale = 4)
     @Builder.Default
     private BigDecimal priceChangePct = BigDecimal.ZERO;
 
+    @Column(name = "updated_at", table = QUOTES)
+    private LocalDateTime quotedAt;
+
     @Column(name = "is_active", nullable = false)
     @Builder.Default
     private Boolean isActive = true;
@@ -61,6 +76,7 @@ public class Asset {
     void prePersist() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        quotedAt  = updatedAt;
     }
 
     @PreUpdate
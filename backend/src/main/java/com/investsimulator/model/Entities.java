@@ -30,7 +30,7 @@ class Holding {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "asset_id", nullable = false)
     private Asset asset;
 
@@ -70,7 +70,7 @@ class Holding {
 // ============================================================
 @Entity
 @Table(name = "transactions", indexes = {
-    @Index(name = "idx_tx_user",       columnList = "user_id"),
+    @Index(name = "idx_tx_user_time",  columnList = "user_id, executed_at, id"),
     @Index(name = "idx_tx_asset",      columnList = "asset_id"),
     @Index(name = "idx_tx_type",       columnList = "type"),
     @Index(name = "idx_tx_date",       columnList = "executed_at"),
@@ -83,15 +83,20 @@ class Holding {
 @Builder
 class Transaction {
 
+    // Pooled ids from id_sequences: one round-trip reserves a block of 500,
+    // and unlike IDENTITY lets Hibernate batch the ledger INSERTs
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "transaction_ids")
+    @TableGenerator(name = "transaction_ids", table = "id_sequences",
+        pkColumnName = "seq_name", valueColumnName = "next_val", pkColumnValue = "transactions",
+        allocationSize = 500)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "asset_id", nullable = false)
     private Asset asset;
 
@@ -209,7 +214,7 @@ class WatchlistItem {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "asset_id", nullable = false)
     private Asset asset;
 
@@ -217,3 +222,137 @@ class WatchlistItem {
     @Builder.Default
     private LocalDateTime addedAt = LocalDateTime.now();
 }
+
+
+// ============================================================
+// PriceCandle.java — Pre-aggregated OHLCV rollup per resolution
+// ============================================================
+@Entity
+@Table(name = "price_candles",
+    uniqueConstraints = @UniqueConstraint(name = "uq_candle_bucket",
+        columnNames = {"asset_id", "resolution", "bucket_time"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+class PriceCandle {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "asset_id", nullable = false)
+    private Long assetId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 2)
+    private Resolution resolution;
+
+    // Bucket start, epoch seconds (UTC)
+    @Column(name = "bucket_time", nullable = false)
+    private Long bucketTime;
+
+    @Column(nullable = false, precision = 18, scale = 6)
+    private BigDecimal open;
+
+    @Column(nullable = false, precision = 18, scale = 6)
+    private BigDecimal high;
+
+    @Column(nullable = false, precision = 18, scale = 6)
+    private BigDecimal low;
+
+    @Column(nullable = false, precision = 18, scale = 6)
+    private BigDecimal close;
+
+    // Tick volume — number of price updates folded into the bucket
+    @Column(nullable = false)
+    private Long volume;
+
+    public enum Resolution {
+        S1("1s", 1), M1("1m", 60), M5("5m", 300), H1("1h", 3_600), D1("1d", 86_400);
+
+        private final String code;
+        private final long   seconds;
+
+        Resolution(String code, long seconds) {
+            this.code    = code;
+            this.seconds = seconds;
+        }
+
+        public String code()   { return code; }
+        public long seconds()  { return seconds; }
+
+        public static Resolution fromCode(String code) {
+            for (Resolution r : values()) {
+                if (r.code.equalsIgnoreCase(code)) return r;
+            }
+            throw new IllegalArgumentException("Unsupported resolution: " + code + " (use 1s, 1m, 5m, 1h or 1d)");
+        }
+    }
+}
+
+
+// ============================================================
+// LimitOrder.java — Resting limit order with its reservation
+// ============================================================
+@Entity
+@Table(name = "limit_orders", indexes = {
+    @Index(name = "idx_lo_user_status", columnList = "user_id, status"),
+    @Index(name = "idx_lo_status",      columnList = "status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+class LimitOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "asset_id", nullable = false)
+    private Asset asset;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 4)
+    private Transaction.TradeType side;
+
+    @Column(nullable = false, precision = 18, scale = 8)
+    private BigDecimal quantity;
+
+    @Column(name = "limit_price", nullable = false, precision = 18, scale = 6)
+    private BigDecimal limitPrice;
+
+    // Cash held back from the balance for BUY orders (zero for SELL)
+    @Column(name = "reserved_amount", nullable = false, precision = 18, scale = 4)
+    @Builder.Default
+    private BigDecimal reservedAmount = BigDecimal.ZERO;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 9)
+    @Builder.Default
+    private Status status = Status.OPEN;
+
+    @Column(name = "fill_price", precision = 18, scale = 6)
+    private BigDecimal fillPrice;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    @PrePersist
+    void prePersist() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public enum Status { OPEN, FILLED, CANCELLED }
+}
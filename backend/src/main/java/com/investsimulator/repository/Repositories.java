@@ -1,7 +1,7 @@
 package com.investsimulator.repository;
 
 import com.investsimulator.model.*;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
@@ -15,6 +15,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
+
     boolean existsByEmail(String email);
 
     List<User> findAllByIsActiveTrue();
@@ -33,14 +37,6 @@ public interface AssetRepository extends JpaRepository<Asset, Long> {
     List<Asset> findByTypeAndIsActiveTrue(Asset.AssetType type);
 
     Optional<Asset> findBySymbol(String symbol);
-
-    @Query("SELECT a FROM Asset a WHERE a.isActive = true AND " +
-           "(LOWER(a.name) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
-           " LOWER(a.symbol) LIKE LOWER(CONCAT('%', :q, '%')))")
-    List<Asset> searchAssets(@Param("q") String query);
-
-    @Query("SELECT a FROM Asset a WHERE a.isActive = true ORDER BY ABS(a.priceChangePct) DESC")
-    List<Asset> findTopMovers(Pageable pageable);
 }
 
 // ============================================================
@@ -48,7 +44,13 @@ public interface AssetRepository extends JpaRepository<Asset, Long> {
 // ============================================================
 public interface HoldingRepository extends JpaRepository<Holding, Long> {
 
-    List<Holding> findAllByUserId(Long userId);
+    // Holding.asset is LAZY; every path that reads asset fields fetches it in the same statement
+
+    @Query("SELECT h FROM Holding h JOIN FETCH h.asset WHERE h.user.id = :userId")
+    List<Holding> findAllByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT h FROM Holding h JOIN FETCH h.asset")
+    List<Holding> findAllWithAsset();
 
     Optional<Holding> findByUserIdAndAssetId(Long userId, Long assetId);
 
@@ -67,7 +69,19 @@ public interface HoldingRepository extends JpaRepository<Holding, Long> {
 // ============================================================
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
-    Page<Transaction> findAllByUserIdOrderByExecutedAtDesc(Long userId, Pageable pageable);
+    /** Newest first; the first keyset page. A List return type skips Spring Data's count query. */
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.asset WHERE t.user.id = :userId " +
+           "ORDER BY t.executedAt DESC, t.id DESC")
+    List<Transaction> findLatestByUserId(@Param("userId") Long userId, Pageable limit);
+
+    /** Keyset page: rows strictly older than (executedAt, id), served by idx_tx_user_time. */
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.asset WHERE t.user.id = :userId AND " +
+           "(t.executedAt < :at OR (t.executedAt = :at AND t.id < :id)) " +
+           "ORDER BY t.executedAt DESC, t.id DESC")
+    List<Transaction> findByUserIdBefore(@Param("userId") Long userId,
+                                         @Param("at") java.time.LocalDateTime executedAt,
+                                         @Param("id") Long id,
+                                         Pageable limit);
 
     List<Transaction> findTop10ByUserIdOrderByExecutedAtDesc(Long userId);
 
@@ -88,7 +102,9 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 // ============================================================
 public interface WatchlistRepository extends JpaRepository<WatchlistItem, Long> {
 
-    List<WatchlistItem> findAllByUserIdOrderByAddedAtDesc(Long userId);
+    /** Asset ids only: the watchlist is rendered from the cached asset catalog, no join needed. */
+    @Query("SELECT w.asset.id FROM WatchlistItem w WHERE w.user.id = :userId ORDER BY w.addedAt DESC")
+    List<Long> findAssetIdsByUserId(@Param("userId") Long userId);
 
     Optional<WatchlistItem> findByUserIdAndAssetId(Long userId, Long assetId);
 
@@ -104,3 +120,33 @@ public interface PortfolioRepository extends JpaRepository<Portfolio, Long> {
 
     Optional<Portfolio> findByUserId(Long userId);
 }
+
+// ============================================================
+// PriceCandleRepository
+// ============================================================
+public interface PriceCandleRepository extends JpaRepository<PriceCandle, Long> {
+
+    List<PriceCandle> findByAssetIdAndResolutionAndBucketTimeBetweenOrderByBucketTimeDesc(
+        Long assetId, PriceCandle.Resolution resolution, Long from, Long to, Pageable pageable);
+}
+
+// ============================================================
+// LimitOrderRepository
+// ============================================================
+public interface LimitOrderRepository extends JpaRepository<LimitOrder, Long> {
+
+    List<LimitOrder> findAllByStatus(LimitOrder.Status status);
+
+    @Query("SELECT o FROM LimitOrder o JOIN FETCH o.asset WHERE o.user.id = :userId ORDER BY o.createdAt DESC")
+    List<LimitOrder> findAllByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId);
+
+    @Query("SELECT o FROM LimitOrder o JOIN FETCH o.asset WHERE o.user.id = :userId AND o.status = :status " +
+           "ORDER BY o.createdAt DESC")
+    List<LimitOrder> findAllByUserIdAndStatusOrderByCreatedAtDesc(@Param("userId") Long userId,
+                                                                  @Param("status") LimitOrder.Status status);
+
+    @Query("SELECT o FROM LimitOrder o JOIN FETCH o.asset WHERE o.id = :id")
+    Optional<LimitOrder> findWithAssetById(@Param("id") Long id);
+
+    Optional<LimitOrder> findByIdAndUserId(Long id, Long userId);
+}
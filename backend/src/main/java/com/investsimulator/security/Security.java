@@ -1,9 +1,13 @@
 package com.investsimulator.security;
 
 import com.investsimulator.repository.UserRepository;
+import com.investsimulator.service.AdaptiveConcurrency;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,8 +16,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.*;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.*;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -25,15 +34,23 @@ import org.springframework.security.core.userdetails.*;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 import org.springframework.stereotype.*;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.cors.*;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 // ============================================================
 // JwtService — Token generation & validation
@@ -48,6 +65,22 @@ public class JwtService {
     @Value("${app.jwt.expiration-ms}")
     private long expirationMs;
 
+    @Value("${app.jwt.cache-size:10000}")
+    private int cacheSize;
+
+    // Derived once at startup; the parser is immutable and thread-safe
+    private Key       signingKey;
+    private JwtParser parser;
+
+    // Verified principals keyed by SHA-256(token), valid until the token's exp
+    private final Map<ByteBuffer, VerifiedToken> verified = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser     = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     public String generateToken(String email, Long userId, String role) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
@@ -58,13 +91,48 @@ public class JwtService {
             .setSubject(email)
             .setIssuedAt(new Date(System.currentTimeMillis()))
             .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
-            .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+            .signWith(signingKey, SignatureAlgorithm.HS256)
             .compact();
     }
 
+    /**
+     * Verify a token and build its principal, or return null if it is
+     * invalid or expired. A token seen before is answered from the cache
+     * without re-checking the signature; entries die with the token.
+     */
+    public CustomUserPrincipal authenticate(String token) {
+        ByteBuffer key = ByteBuffer.wrap(sha256(token));
+        long now = System.currentTimeMillis();
+
+        VerifiedToken hit = verified.get(key);
+        if (hit != null) {
+            if (now < hit.expiresAt()) return hit.principal();
+            verified.remove(key, hit);
+            return null;
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Invalid JWT: {}", e.getMessage());
+            return null;
+        }
+
+        CustomUserPrincipal principal = new CustomUserPrincipal(
+            ((Number) claims.get("userId")).longValue(), claims.getSubject(), (String) claims.get("role"));
+
+        Date exp = claims.getExpiration();
+        if (cacheSize > 0 && exp != null) {
+            if (verified.size() >= cacheSize) evict(now);
+            verified.put(key, new VerifiedToken(principal, exp.getTime()));
+        }
+        return principal;
+    }
+
     public boolean isTokenValid(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
+            parser.parseClaimsJws(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             log.debug("Invalid JWT: {}", e.getMessage());
@@ -73,11 +141,7 @@ public class JwtService {
     }
 
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-            .setSigningKey(getSigningKey())
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public String extractEmail(String token) {
@@ -92,10 +156,26 @@ public class JwtService {
         return (String) extractAllClaims(token).get("role");
     }
 
-    private Key getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /** Drop expired entries; if the cache is still full, shed a quarter of it. */
+    private synchronized void evict(long now) {
+        if (verified.size() < cacheSize) return;
+        verified.values().removeIf(v -> v.expiresAt() <= now);
+        Iterator<ByteBuffer> it = verified.keySet().iterator();
+        while (verified.size() > cacheSize * 3 / 4 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
+
+    private record VerifiedToken(CustomUserPrincipal principal, long expiresAt) {}
 }
 
 
@@ -129,14 +209,24 @@ public class CustomUserPrincipal implements UserDetails {
 
 
 // ============================================================
-// JwtAuthFilter — Validates JWT on every request
+// JwtAuthFilter — Validates JWT on every request (one parse, then cached)
 // ============================================================
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    private final JwtService jwtService;
+    private final JwtService    jwtService;
+    private final MeterRegistry meters;
+
+    private Timer authenticated;
+    private Timer rejected;
+
+    @PostConstruct
+    void init() {
+        authenticated = Timer.builder("auth.jwt").tag("result", "authenticated").register(meters);
+        rejected      = Timer.builder("auth.jwt").tag("result", "rejected").register(meters);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -153,13 +243,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         String token = authHeader.substring(7);
 
+        long start = System.nanoTime();
+        boolean ok = false;
         try {
-            if (jwtService.isTokenValid(token)) {
-                Long   userId = jwtService.extractUserId(token);
-                String email  = jwtService.extractEmail(token);
-                String role   = jwtService.extractRole(token);
-
-                CustomUserPrincipal principal = new CustomUserPrincipal(userId, email, role);
+            CustomUserPrincipal principal = jwtService.authenticate(token);
+            if (principal != null) {
+                ok = true;
                 UsernamePasswordAuthenticationToken authToken =
                     new UsernamePasswordAuthenticationToken(
                         principal, null, principal.getAuthorities());
@@ -169,12 +258,58 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         } catch (Exception e) {
             log.debug("JWT validation failed: {}", e.getMessage());
         }
+        (ok ? authenticated : rejected).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
         filterChain.doFilter(request, response);
     }
 }
 
 
+// ============================================================
+// ConcurrencyLimitFilter — sheds DB-bound requests above the adaptive limit
+// ============================================================
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)   // ahead of the security chain: a refused request costs no JWT check
+@RequiredArgsConstructor
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrency limiter;
+    private final AntPathMatcher      matcher = new AntPathMatcher();
+
+    @Value("${app.limiter.paths:/api/trade/**,/api/portfolio/**}")
+    private List<String> paths;
+
+    @Value("${app.limiter.exclude:/api/portfolio/history/export}")
+    private List<String> exclude;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!limiter.isEnabled()) return true;
+        String path = request.getRequestURI();
+        return exclude.stream().anyMatch(p -> matcher.match(p, path))
+            || paths.stream().noneMatch(p -> matcher.match(p, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        if (!limiter.tryAcquire()) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            response.setContentType("application/json");
+            response.getWriter().write("{\"success\":false,\"message\":\"Server busy, please retry\"}");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start, response.getStatus() >= 500);
+        }
+    }
+}
+
+
 // ============================================================
 // SecurityConfig — Full Spring Security configuration
 // ============================================================
@@ -186,6 +321,10 @@ public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
 
+    /** Source addresses allowed to scrape /actuator/prometheus without a token. */
+    @Value("${app.actuator.scrape-cidrs:127.0.0.1/32,::1/128}")
+    private List<String> scrapeCidrs;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         return http
@@ -198,8 +337,10 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.POST, "/api/auth/signup", "/api/auth/login").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/market/**").permitAll()
                 .requestMatchers("/actuator/health", "/actuator/info").permitAll()
-                // Admin only
-                .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                // Prometheus: scraper addresses, or an ADMIN token
+                .requestMatchers("/actuator/prometheus").access(scraperOrAdmin())
+                // Admin only (metrics, caches: the caches endpoint also accepts DELETE)
+                .requestMatchers("/api/admin/**", "/actuator/**").hasRole("ADMIN")
                 // All others require authentication
                 .anyRequest().authenticated()
             )
@@ -219,6 +360,15 @@ public class SecurityConfig {
             .build();
     }
 
+    private AuthorizationManager<RequestAuthorizationContext> scraperOrAdmin() {
+        List<IpAddressMatcher> scrapers = scrapeCidrs.stream()
+            .map(String::trim).filter(c -> !c.isEmpty()).map(IpAddressMatcher::new).toList();
+        AuthorizationManager<RequestAuthorizationContext> admin = AuthorityAuthorizationManager.hasRole("ADMIN");
+        return (auth, ctx) -> scrapers.stream().anyMatch(m -> m.matches(ctx.getRequest()))
+            ? new AuthorizationDecision(true)
+            : admin.check(auth, ctx);
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder(12);
@@ -0,0 +1,159 @@
+package com.investsimulator.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive limits for database-bound requests.
+ *
+ * Request limit — AIMD on latency: every request that finishes under
+ * {@code app.limiter.target-latency-ms} raises the limit by 1/limit (about
+ * +1 per limit's worth of requests); a slower one, or one that could not
+ * get a connection, multiplies it by {@code app.limiter.backoff}. Requests
+ * above the limit are refused at once (see {@code ConcurrencyLimitFilter})
+ * instead of piling up behind the pool until they time out.
+ *
+ * Pool size — also AIMD: while requests are waiting for a Hikari
+ * connection the pool grows by one per adjustment, up to
+ * {@code app.db-pool.max-size}; after {@code app.db-pool.idle-periods}
+ * adjustments with less than half of it busy it shrinks by a quarter, never
+ * below {@code spring.datasource.hikari.maximum-pool-size}.
+ *
+ * Together they let requests queue on the connection pool, bounded,
+ * whether they run on platform or virtual threads.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AdaptiveConcurrency {
+
+    private final DataSource    dataSource;
+    private final MeterRegistry meters;
+
+    @Value("${app.limiter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.limiter.initial:40}")
+    private int initialLimit;
+
+    @Value("${app.limiter.min:8}")
+    private int minLimit;
+
+    @Value("${app.limiter.max:1000}")
+    private int maxLimit;
+
+    @Value("${app.limiter.target-latency-ms:250}")
+    private long targetLatencyMs;
+
+    @Value("${app.limiter.backoff:0.9}")
+    private double backoff;
+
+    @Value("${app.db-pool.adaptive:true}")
+    private boolean adaptivePool;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int basePoolSize;
+
+    @Value("${app.db-pool.max-size:50}")
+    private int maxPoolSize;
+
+    @Value("${app.db-pool.idle-periods:30}")
+    private int idlePeriods;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private long targetNanos;
+    private Counter rejected;
+
+    private HikariDataSource hikari;   // null when the pool is not Hikari
+    private int idleFor;               // scheduler thread only
+
+    @PostConstruct
+    void init() {
+        limit       = initialLimit;
+        targetNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        rejected    = Counter.builder("limiter.rejected")
+            .description("Requests refused above the adaptive concurrency limit")
+            .register(meters);
+        Gauge.builder("limiter.limit", this, c -> c.limit).register(meters);
+        Gauge.builder("limiter.inflight", inFlight, AtomicInteger::get).register(meters);
+
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) hikari = dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            log.warn("Could not unwrap the connection pool: {}", e.getMessage());
+        }
+        if (hikari == null && adaptivePool) log.info("Connection pool is not Hikari; pool sizing is fixed");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Admit a request, or return false if the limit is reached. Pair every true with {@link #release}. */
+    public boolean tryAcquire() {
+        while (true) {
+            int n = inFlight.get();
+            if (n >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(n, n + 1)) return true;
+        }
+    }
+
+    /** Finish an admitted request; {@code overloaded} marks a pool timeout or similar. */
+    public void release(long elapsedNanos, boolean overloaded) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            if (overloaded || elapsedNanos > targetNanos) {
+                limit = Math.max(minLimit, limit * backoff);
+            } else {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.db-pool.adjust-interval-ms:1000}")
+    public void adjustPool() {
+        if (!adaptivePool || hikari == null) return;
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) return;   // not started yet
+
+        int size    = hikari.getMaximumPoolSize();
+        int waiting = pool.getThreadsAwaitingConnection();
+        int active  = pool.getActiveConnections();
+
+        if (waiting > 0 && size < maxPoolSize) {
+            idleFor = 0;
+            resize(size + 1, waiting);
+        } else if (active * 2 < size && size > basePoolSize) {
+            if (++idleFor >= idlePeriods) {
+                idleFor = 0;
+                resize(Math.max(basePoolSize, size - Math.max(1, size / 4)), waiting);
+            }
+        } else {
+            idleFor = 0;
+        }
+    }
+
+    private void resize(int size, int waiting) {
+        log.debug("Connection pool {} -> {} ({} waiting, request limit {})",
+            hikari.getMaximumPoolSize(), size, waiting, (int) limit);
+        hikari.setMaximumPoolSize(size);
+    }
+}
@@ -0,0 +1,93 @@
+package com.investsimulator.service;
+
+import com.investsimulator.dto.AssetDTO;
+import com.investsimulator.model.Asset;
+import com.investsimulator.repository.AssetRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-through cache of asset reference data (Caffeine, see
+ * {@code spring.cache.*}).
+ *
+ * Only the slow-changing metadata is cached, as {@link AssetInfo}; prices
+ * are never cached here and are overlaid from the {@link PriceBook} when a
+ * DTO is built. {@link #refresh} is the single entry point for admin
+ * changes: it evicts the cached entries and re-registers the asset with the
+ * other in-memory views (price book, search index, movers, scenario).
+ *
+ * Hit / miss / eviction counts are published as {@code cache.*} meters.
+ */
+@Service
+@RequiredArgsConstructor
+public class AssetCatalog {
+
+    public static final String BY_ID     = "assets";
+    public static final String BY_SYMBOL = "assetSymbols";
+    public static final String LISTS     = "assetLists";
+
+    private final AssetRepository  assetRepo;
+    private final PriceBook        priceBook;
+    private final AssetSearchIndex searchIndex;
+    private final MarketMovers     movers;
+    private final ScenarioEngine   scenario;
+
+    public record AssetInfo(Long id, String symbol, String name, Asset.AssetType type, String sector,
+                            BigDecimal basePrice, boolean active) {
+
+        static AssetInfo of(Asset a) {
+            return new AssetInfo(a.getId(), a.getSymbol(), a.getName(), a.getType(), a.getSector(),
+                a.getBasePrice(), Boolean.TRUE.equals(a.getIsActive()));
+        }
+    }
+
+    @Cacheable(BY_ID)
+    public Optional<AssetInfo> byId(Long id) {
+        return assetRepo.findById(id).map(AssetInfo::of);
+    }
+
+    /** Symbols are matched upper-case, as stored. */
+    @Cacheable(cacheNames = BY_SYMBOL, key = "#symbol.toUpperCase()")
+    public Optional<AssetInfo> bySymbol(String symbol) {
+        return assetRepo.findBySymbol(symbol.toUpperCase()).map(AssetInfo::of);
+    }
+
+    /** Active assets, optionally of one type. */
+    @Cacheable(cacheNames = LISTS, key = "#type == null ? 'ALL' : #type.name()")
+    public List<AssetInfo> active(Asset.AssetType type) {
+        List<Asset> assets = type == null
+            ? assetRepo.findAllByIsActiveTrue()
+            : assetRepo.findByTypeAndIsActiveTrue(type);
+        return assets.stream().map(AssetInfo::of).toList();
+    }
+
+    /** Evict and re-register an asset after an admin add / toggle. */
+    @Caching(evict = {
+        @CacheEvict(cacheNames = BY_ID,     key = "#asset.id"),
+        @CacheEvict(cacheNames = BY_SYMBOL, key = "#asset.symbol.toUpperCase()"),
+        @CacheEvict(cacheNames = LISTS,     allEntries = true)
+    })
+    public void refresh(Asset asset) {
+        priceBook.register(asset);
+        searchIndex.register(asset);
+        movers.register(asset);
+        scenario.register(asset);
+    }
+
+    /** Metadata plus the live quote; falls back to the base price for unknown ids. */
+    public AssetDTO toDto(AssetInfo a) {
+        PriceBook.Quotes q = priceBook.quotes();
+        int id = a.id().intValue();
+        boolean live = q.contains(id);
+        return new AssetDTO(a.id(), a.symbol(), a.name(), a.type().name(), a.sector(),
+            live ? PriceBook.toPrice(q.price[id]) : a.basePrice(),
+            live ? PriceBook.toChangePct(q.changePct[id]) : BigDecimal.ZERO);
+    }
+}
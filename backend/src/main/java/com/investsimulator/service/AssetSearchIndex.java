@@ -0,0 +1,225 @@
+package com.investsimulator.service;
+
+import com.investsimulator.dto.AssetDTO;
+import com.investsimulator.model.Asset;
+import com.investsimulator.repository.AssetRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * In-memory search over active assets' symbol and name.
+ *
+ * Results are ranked in tiers: exact symbol, symbol prefix (either the full
+ * symbol or the ticker after the exchange, e.g. "reli" for NSE:RELIANCE),
+ * prefix of a word in the name, then anywhere in symbol or name. Prefix
+ * tiers are binary searches over sorted term arrays; the infix tier
+ * intersects trigram posting lists and needs at least three characters.
+ * Each tier is walked in order and stops as soon as {@code limit} assets
+ * are collected, so a query costs O(log n + limit) for prefixes.
+ *
+ * Like {@link PriceBook} the index is an immutable generation swapped on
+ * write; admin add / toggle rebuilds it, readers never lock.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AssetSearchIndex {
+
+    private static final int TRIGRAM = 3;
+
+    private final AssetRepository assetRepo;
+    private final PriceBook       priceBook;
+
+    private final Map<Long, Asset> active = new HashMap<>();
+    private volatile Index index = Index.build(List.of());
+
+    @PostConstruct
+    public void load() {
+        List<Asset> assets = assetRepo.findAllByIsActiveTrue();
+        synchronized (this) {
+            active.clear();
+            assets.forEach(a -> active.put(a.getId(), a));
+            index = Index.build(active.values());
+        }
+        log.info("Asset search index built over {} assets", assets.size());
+    }
+
+    /** Add, refresh or drop an asset (after admin add / toggle). */
+    public synchronized void register(Asset asset) {
+        if (Boolean.TRUE.equals(asset.getIsActive())) {
+            active.put(asset.getId(), asset);
+        } else {
+            active.remove(asset.getId());
+        }
+        index = Index.build(active.values());
+    }
+
+    /** Best {@code limit} matches for {@code query}, priced from the live book. */
+    public List<AssetDTO> search(String query, int limit) {
+        PriceBook.Quotes q = priceBook.quotes();
+        List<AssetDTO> out = new ArrayList<>();
+        for (Asset a : index.find(normalize(query), limit)) {
+            int id = a.getId().intValue();
+            boolean live = q.contains(id);
+            out.add(new AssetDTO(a.getId(), a.getSymbol(), a.getName(), a.getType().name(), a.getSector(),
+                live ? PriceBook.toPrice(q.price[id]) : a.getCurrentPrice(),
+                live ? PriceBook.toChangePct(q.changePct[id]) : a.getPriceChangePct()));
+        }
+        return out;
+    }
+
+    static String normalize(String s) {
+        return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // ============================================================
+    // Index — one immutable generation
+    // ============================================================
+    static final class Index {
+
+        private final Asset[]  docs;
+        private final String[] symbols;       // normalized, per doc
+        private final String[] names;
+
+        // Term dictionaries, sorted by term; parallel arrays hold the doc.
+        private final String[] symbolTerms;
+        private final int[]    symbolTermDoc;
+        private final String[] nameTerms;
+        private final int[]    nameTermDoc;
+
+        private final Map<String, int[]> trigrams;   // -> ascending doc numbers
+
+        private Index(Asset[] docs, String[] symbols, String[] names,
+                      String[] symbolTerms, int[] symbolTermDoc, String[] nameTerms, int[] nameTermDoc,
+                      Map<String, int[]> trigrams) {
+            this.docs          = docs;
+            this.symbols       = symbols;
+            this.names         = names;
+            this.symbolTerms   = symbolTerms;
+            this.symbolTermDoc = symbolTermDoc;
+            this.nameTerms     = nameTerms;
+            this.nameTermDoc   = nameTermDoc;
+            this.trigrams      = trigrams;
+        }
+
+        static Index build(Collection<Asset> assets) {
+            Asset[]  docs    = assets.stream()
+                .sorted(Comparator.comparing(Asset::getSymbol)).toArray(Asset[]::new);
+            String[] symbols = new String[docs.length];
+            String[] names   = new String[docs.length];
+
+            List<Term> symbolTerms = new ArrayList<>();
+            List<Term> nameTerms   = new ArrayList<>();
+            Map<String, IntList> postings = new HashMap<>();
+
+            for (int d = 0; d < docs.length; d++) {
+                symbols[d] = normalize(docs[d].getSymbol());
+                names[d]   = normalize(docs[d].getName());
+
+                symbolTerms.add(new Term(symbols[d], d));
+                int colon = symbols[d].indexOf(':');
+                if (colon >= 0 && colon + 1 < symbols[d].length()) {
+                    symbolTerms.add(new Term(symbols[d].substring(colon + 1), d));
+                }
+                for (String word : names[d].split("[^\\p{L}\\p{N}]+")) {
+                    if (!word.isEmpty()) nameTerms.add(new Term(word, d));
+                }
+                addTrigrams(postings, symbols[d], d);
+                addTrigrams(postings, names[d], d);
+            }
+
+            Map<String, int[]> trigrams = new HashMap<>(postings.size() * 2);
+            postings.forEach((gram, docList) -> trigrams.put(gram, docList.toArray()));
+
+            symbolTerms.sort(Term.ORDER);
+            nameTerms.sort(Term.ORDER);
+            return new Index(docs, symbols, names,
+                symbolTerms.stream().map(Term::text).toArray(String[]::new),
+                symbolTerms.stream().mapToInt(Term::doc).toArray(),
+                nameTerms.stream().map(Term::text).toArray(String[]::new),
+                nameTerms.stream().mapToInt(Term::doc).toArray(),
+                trigrams);
+        }
+
+        List<Asset> find(String q, int limit) {
+            List<Asset> out = new ArrayList<>(Math.min(limit, 64));
+            if (q.isEmpty() || limit <= 0) return out;
+            Set<Integer> seen = new HashSet<>();
+
+            int exact = Arrays.binarySearch(symbolTerms, q);
+            if (exact >= 0) {
+                // Equal terms may sit either side of the hit; a full symbol beats a bare ticker.
+                while (exact > 0 && symbolTerms[exact - 1].equals(q)) exact--;
+                for (int i = exact; i < symbolTerms.length && symbolTerms[i].equals(q); i++) {
+                    if (symbols[symbolTermDoc[i]].equals(q)) collect(symbolTermDoc[i], seen, out, limit);
+                }
+            }
+            prefix(symbolTerms, symbolTermDoc, q, seen, out, limit);
+            prefix(nameTerms, nameTermDoc, q, seen, out, limit);
+            if (q.length() >= TRIGRAM) infix(q, seen, out, limit);
+            return out;
+        }
+
+        private void prefix(String[] terms, int[] termDoc, String q,
+                            Set<Integer> seen, List<Asset> out, int limit) {
+            int i = Arrays.binarySearch(terms, q);
+            if (i < 0) i = -i - 1;
+            while (i > 0 && terms[i - 1].equals(q)) i--;
+            for (; i < terms.length && out.size() < limit && terms[i].startsWith(q); i++) {
+                collect(termDoc[i], seen, out, limit);
+            }
+        }
+
+        private void infix(String q, Set<Integer> seen, List<Asset> out, int limit) {
+            int[][] lists = new int[q.length() - TRIGRAM + 1][];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = trigrams.get(q.substring(i, i + TRIGRAM));
+                if (lists[i] == null) return;
+            }
+            Arrays.sort(lists, Comparator.comparingInt(l -> l.length));
+
+            // Walk the rarest list; probe the others, then confirm the substring.
+            for (int d : lists[0]) {
+                if (out.size() >= limit) return;
+                boolean all = true;
+                for (int k = 1; k < lists.length && all; k++) all = Arrays.binarySearch(lists[k], d) >= 0;
+                if (all && (symbols[d].contains(q) || names[d].contains(q))) collect(d, seen, out, limit);
+            }
+        }
+
+        private void collect(int doc, Set<Integer> seen, List<Asset> out, int limit) {
+            if (out.size() < limit && seen.add(doc)) out.add(docs[doc]);
+        }
+
+        private static void addTrigrams(Map<String, IntList> postings, String text, int doc) {
+            for (int i = 0; i + TRIGRAM <= text.length(); i++) {
+                postings.computeIfAbsent(text.substring(i, i + TRIGRAM), k -> new IntList()).addOnce(doc);
+            }
+        }
+    }
+
+    private record Term(String text, int doc) {
+        // Shorter terms first among equal prefixes falls out of lexical order.
+        static final Comparator<Term> ORDER = Comparator.comparing(Term::text).thenComparingInt(Term::doc);
+    }
+
+    /** Growable ascending int list; docs are added in order so dedup is a tail check. */
+    private static final class IntList {
+        private int[] a = new int[4];
+        private int   n;
+
+        void addOnce(int v) {
+            if (n > 0 && a[n - 1] == v) return;
+            if (n == a.length) a = Arrays.copyOf(a, n * 2);
+            a[n++] = v;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(a, n);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.investsimulator.service;
+
+import com.investsimulator.exception.BusinessException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A trading rule for the {@link Backtester}.
+ *
+ * The backtester gives every asset its own sleeve (a slice of the capital)
+ * and its own strategy instance, and feeds it that asset's prices in order
+ * on a single thread, so implementations may keep plain mutable state.
+ * {@link #decide} runs once per tick and must be cheap; the order it
+ * returns is filled at the tick's price with the live trading rules.
+ *
+ * To add a strategy, expose a {@link Factory} as a Spring bean; the
+ * built-ins are listed in {@link #BUILT_IN}.
+ */
+@FunctionalInterface
+public interface BacktestStrategy {
+
+    /** Largest moving-average window a request may ask for, in ticks. */
+    int MAX_WINDOW = 100_000;
+
+    /** Units to buy (> 0), to sell (< 0), or 0 to hold. */
+    double decide(long tick, double price, Account account);
+
+    /** The sleeve as the strategy sees it, as of the previous fill. */
+    interface Account {
+        double cash();
+        double quantity();
+        double avgBuyPrice();
+        double basePrice();
+    }
+
+    /** Named source of fresh strategy instances, one per sleeve. */
+    interface Factory {
+        String name();
+        String description();
+        BacktestStrategy create(Map<String, Double> params);
+    }
+
+    List<Factory> BUILT_IN = List.of(
+        factory("buy-and-hold", "Invest `fraction` (1.0) of the sleeve on the first tick and hold",
+            p -> new BuyAndHold(param(p, "fraction", 1.0))),
+        factory("sma-crossover", "Buy when the `fast` (50) tick average crosses above the `slow` (200), sell all when it crosses below",
+            p -> new SmaCrossover(window(p, "fast", 50), window(p, "slow", 200), param(p, "fraction", 1.0))),
+        factory("mean-reversion", "Buy `fraction` (0.25) of cash when price is `band` (0.05) below base, sell all when it is `band` above",
+            p -> new MeanReversion(param(p, "band", 0.05), param(p, "fraction", 0.25)))
+    );
+
+    static Factory factory(String name, String description, Function<Map<String, Double>, BacktestStrategy> create) {
+        return new Factory() {
+            @Override public String name()        { return name; }
+            @Override public String description() { return description; }
+            @Override public BacktestStrategy create(Map<String, Double> params) {
+                return create.apply(params == null ? Map.of() : params);
+            }
+        };
+    }
+
+    private static double param(Map<String, Double> params, String key, double fallback) {
+        Double v = params.get(key);
+        if (v == null) return fallback;
+        if (!Double.isFinite(v) || v <= 0) throw new BusinessException("Strategy parameter must be positive: " + key);
+        return v;
+    }
+
+    /** A whole number of ticks, at most {@link #MAX_WINDOW}. */
+    private static int window(Map<String, Double> params, String key, int fallback) {
+        double v = param(params, key, fallback);
+        if (v > MAX_WINDOW || v != Math.rint(v)) {
+            throw new BusinessException("Strategy parameter " + key + " must be a whole number of ticks up to " + MAX_WINDOW);
+        }
+        return (int) v;
+    }
+
+    /** Whole 1e-8 units of {@code fraction} of the cash at {@code price}, less a paisa for rounding. */
+    private static double affordable(Account a, double fraction, double price) {
+        double budget = a.cash() * Math.min(fraction, 1.0) - 0.01;
+        return budget <= 0 ? 0 : Math.floor(budget / price * 1e8) / 1e8;
+    }
+
+    // ============================================================
+    // Built-ins
+    // ============================================================
+
+    final class BuyAndHold implements BacktestStrategy {
+        private final double fraction;
+        private boolean bought;
+
+        BuyAndHold(double fraction) {
+            this.fraction = fraction;
+        }
+
+        @Override
+        public double decide(long tick, double price, Account account) {
+            if (bought) return 0;
+            bought = true;
+            return affordable(account, fraction, price);
+        }
+    }
+
+    /** Moving averages over ring buffers: O(1) per tick whatever the windows. */
+    final class SmaCrossover implements BacktestStrategy {
+        private final double[] fast, slow;
+        private final double   fraction;
+        private double fastSum, slowSum;
+        private long   seen;
+        private int    lastSign;
+
+        SmaCrossover(int fast, int slow, double fraction) {
+            if (fast >= slow) throw new BusinessException("sma-crossover needs fast < slow");
+            this.fast     = new double[fast];
+            this.slow     = new double[slow];
+            this.fraction = fraction;
+        }
+
+        @Override
+        public double decide(long tick, double price, Account account) {
+            int fi = (int) (seen % fast.length), si = (int) (seen % slow.length);
+            fastSum += price - fast[fi];
+            slowSum += price - slow[si];
+            fast[fi] = price;
+            slow[si] = price;
+            if (++seen < slow.length) return 0;
+
+            double diff = fastSum / fast.length - slowSum / slow.length;
+            int sign = diff > 0 ? 1 : diff < 0 ? -1 : 0;
+            int previous = lastSign;
+            lastSign = sign;
+            if (previous <= 0 && sign > 0 && account.quantity() == 0) return affordable(account, fraction, price);
+            if (previous >= 0 && sign < 0 && account.quantity() > 0)  return -account.quantity();
+            return 0;
+        }
+    }
+
+    final class MeanReversion implements BacktestStrategy {
+        private final double band, fraction;
+
+        MeanReversion(double band, double fraction) {
+            this.band     = band;
+            this.fraction = fraction;
+        }
+
+        @Override
+        public double decide(long tick, double price, Account account) {
+            double base = account.basePrice();
+            if (price < base * (1 - band) && account.quantity() == 0) return affordable(account, fraction, price);
+            if (price > base * (1 + band) && account.quantity() > 0)  return -account.quantity();
+            return 0;
+        }
+    }
+}
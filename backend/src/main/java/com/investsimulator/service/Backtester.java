@@ -0,0 +1,350 @@
+package com.investsimulator.service;
+
+import com.investsimulator.dto.BacktestRequest;
+import com.investsimulator.dto.BacktestResultDTO;
+import com.investsimulator.dto.BacktestSleeveDTO;
+import com.investsimulator.dto.BacktestStrategyDTO;
+import com.investsimulator.exception.BusinessException;
+import com.investsimulator.model.Asset;
+import com.investsimulator.repository.AssetRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Replays prices through a {@link BacktestStrategy}, with no side effects.
+ *
+ * The capital is split equally into one sleeve per asset. Each sleeve owns a
+ * strategy instance, a cash balance and a {@link TradeAccounting.Position},
+ * and is filled with the live rules: cost and proceeds via
+ * {@link TradeAccounting#notional}, weighted-average cost, realized P&L, and
+ * rejection on insufficient balance or holdings. Sleeves never interact, so
+ * they run in parallel on a dedicated ForkJoinPool, one task per asset.
+ *
+ * Prices come either from a seeded re-run of the simulator's random walk
+ * ({@link TickEngine#walk}, starting at the base price; one generator per
+ * asset derived from the seed, so results do not depend on the thread
+ * count) or from stored {@code price_history} rows, streamed per asset.
+ * Each streaming sleeve holds a pool connection for its whole replay, so
+ * HISTORY sleeves run on a separate pool of
+ * {@code app.backtest.history-parallelism} threads, capped at half the
+ * connection pool and shared by all runs, leaving connections for trading.
+ * A run may cost at most {@code app.backtest.max-steps} ticks summed over
+ * its sleeves; HISTORY runs are also limited to
+ * {@code app.backtest.max-history-days} and counted at one row per asset per
+ * simulation tick. The per-tick path is primitive doubles; BigDecimal is
+ * only touched on fills. Equity is sampled at {@code app.backtest.checkpoints} evenly spaced
+ * points per sleeve, and the portfolio curve and drawdown come from their sum.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class Backtester {
+
+    private static final String HISTORY_SQL =
+        "SELECT price, recorded_at FROM price_history " +
+        "WHERE asset_id = ? AND recorded_at >= ? AND recorded_at < ? ORDER BY recorded_at";
+
+    private static final BigDecimal DEFAULT_CAPITAL = BigDecimal.valueOf(1_000_000);
+    private static final long       DEFAULT_TICKS   = 86_400;   // a day of per-second ticks
+    private static final long       DEFAULT_SEED    = 42;
+
+    private final AssetRepository                       assetRepo;
+    private final TickEngine                            tickEngine;
+    private final StreamingJdbc                         jdbc;
+    private final ObjectProvider<BacktestStrategy.Factory> plugins;
+
+    @Value("${app.backtest.parallelism:0}")
+    private int parallelism;
+
+    @Value("${app.backtest.max-ticks:31536000}")
+    private long maxTicks;
+
+    @Value("${app.backtest.max-steps:200000000}")
+    private long maxSteps;
+
+    @Value("${app.backtest.max-history-days:366}")
+    private long maxHistoryDays;
+
+    @Value("${app.simulation.price-update-interval-ms:5000}")
+    private long tickIntervalMs;
+
+    @Value("${app.backtest.checkpoints:500}")
+    private int checkpoints;
+
+    @Value("${app.backtest.max-concurrent-runs:1}")
+    private int maxConcurrentRuns;
+
+    @Value("${app.backtest.history-parallelism:2}")
+    private int historyParallelism;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    private final Map<String, BacktestStrategy.Factory> strategies = new LinkedHashMap<>();
+    private ForkJoinPool pool;
+    private ForkJoinPool historyPool;
+    private Semaphore    runs;
+
+    @PostConstruct
+    void start() {
+        BacktestStrategy.BUILT_IN.forEach(f -> strategies.put(f.name(), f));
+        plugins.orderedStream().forEach(f -> strategies.put(f.name(), f));
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        historyPool = new ForkJoinPool(Math.max(1, Math.min(historyParallelism, connectionPoolSize / 2)));
+        runs = new Semaphore(maxConcurrentRuns);
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdownNow();
+        historyPool.shutdownNow();
+    }
+
+    public List<BacktestStrategyDTO> strategies() {
+        return strategies.values().stream()
+            .map(f -> new BacktestStrategyDTO(f.name(), f.description()))
+            .toList();
+    }
+
+    public BacktestResultDTO run(BacktestRequest req) {
+        BacktestStrategy.Factory factory = strategies.get(req.strategy());
+        if (factory == null) throw new BusinessException("Unknown strategy: " + req.strategy());
+
+        boolean history = "HISTORY".equals(req.source());
+        long ticks = req.ticks() != null ? req.ticks() : DEFAULT_TICKS;
+        if (!history && ticks > maxTicks) throw new BusinessException("At most " + maxTicks + " ticks per backtest");
+        LocalDateTime from = history ? parse(req.from(), "from") : null;
+        LocalDateTime to   = history ? parse(req.to(), "to") : null;
+        if (history && !from.isBefore(to)) throw new BusinessException("'from' must be before 'to'");
+        if (history && Duration.between(from, to).toDays() >= maxHistoryDays) {
+            throw new BusinessException("HISTORY backtests span less than " + maxHistoryDays + " days");
+        }
+
+        List<Asset> assets = assetRepo.findAllByIsActiveTrue().stream()
+            .filter(a -> req.assetIds() == null || req.assetIds().contains(a.getId()))
+            .sorted(Comparator.comparing(Asset::getId))
+            .toList();
+        if (assets.isEmpty()) throw new BusinessException("No active assets to backtest");
+
+        // Work is ticks x sleeves; HISTORY has at most one stored row per asset per tick
+        long perAsset = history ? Duration.between(from, to).toMillis() / Math.max(1, tickIntervalMs) + 1 : ticks;
+        if (perAsset > maxSteps / assets.size()) {
+            throw new BusinessException(String.format(
+                "Backtest too large: %d ticks x %d assets exceeds %d steps; pick fewer assets or a shorter run",
+                perAsset, assets.size(), maxSteps));
+        }
+
+        BigDecimal capital = req.initialCapital() != null ? req.initialCapital() : DEFAULT_CAPITAL;
+        BigDecimal perSleeve = capital.divide(BigDecimal.valueOf(assets.size()), 4, RoundingMode.DOWN);
+        long seed = req.seed() != null ? req.seed() : DEFAULT_SEED;
+
+        // Sleeves hold the strategies' buffers, so build them only once admitted
+        if (!runs.tryAcquire()) throw new BusinessException("Another backtest is running, try again shortly");
+        List<Sleeve> sleeves = new ArrayList<>(assets.size());
+        long start = System.nanoTime();
+        try {
+            for (Asset a : assets) {
+                sleeves.add(new Sleeve(a, factory.create(req.params()), perSleeve, checkpoints));
+            }
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(sleeves.size());
+            for (Sleeve s : sleeves) {
+                Runnable replay = history ? () -> replayHistory(s, from, to) : () -> replaySeeded(s, seed, ticks);
+                tasks.add(ForkJoinTask.adapt(replay));
+            }
+            (history ? historyPool : pool).invoke(ForkJoinTask.adapt(() -> { ForkJoinTask.invokeAll(tasks); }));
+        } finally {
+            runs.release();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        BacktestResultDTO result = summarize(req.strategy(), history ? "HISTORY" : "SEEDED",
+            sleeves, perSleeve.multiply(BigDecimal.valueOf(sleeves.size())), elapsedMs);
+        log.info("Backtest {} over {} assets, {} ticks in {} ms: return {}%",
+            req.strategy(), sleeves.size(), result.ticks(), elapsedMs, result.returnPct());
+        return result;
+    }
+
+    // ---- Price sources ------------------------------------------------------
+
+    private void replaySeeded(Sleeve s, long seed, long ticks) {
+        SplittableRandom rnd = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + s.assetId);
+        double base  = s.basePrice;
+        double vol   = tickEngine.volatility(s.crypto);
+        double price = base;
+        long   perCheckpoint = Math.max(1, (ticks + checkpoints - 1) / checkpoints);
+        for (long t = 0; t < ticks; t++) {
+            price = TickEngine.roundPrice(TickEngine.walk(price, base, vol, rnd.nextGaussian()));
+            s.onPrice(t, price, (int) (t / perCheckpoint));
+        }
+        s.finish();
+    }
+
+    private void replayHistory(Sleeve s, LocalDateTime from, LocalDateTime to) {
+        long fromMs = Timestamp.valueOf(from).getTime();
+        long spanMs = Timestamp.valueOf(to).getTime() - fromMs;
+        long[] tick = {0};
+        jdbc.streamingQuery(HISTORY_SQL, ps -> {
+            ps.setLong(1, s.assetId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+        }, rs -> {
+            long at = rs.getTimestamp(2).getTime();
+            int checkpoint = (int) Math.min(checkpoints - 1, (at - fromMs) * checkpoints / spanMs);
+            s.onPrice(tick[0]++, rs.getDouble(1), checkpoint);
+        });
+        s.finish();
+    }
+
+    private static LocalDateTime parse(String value, String field) {
+        if (value == null) throw new BusinessException("'" + field + "' is required for HISTORY backtests");
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException("'" + field + "' must be an ISO date-time, e.g. 2024-01-01T00:00:00");
+        }
+    }
+
+    // ---- Result -------------------------------------------------------------
+
+    private BacktestResultDTO summarize(String strategy, String source, List<Sleeve> sleeves,
+                                        BigDecimal capital, long elapsedMs) {
+        double[] curve = new double[checkpoints];
+        long ticks = 0, trades = 0;
+        BigDecimal equity = BigDecimal.ZERO, realized = BigDecimal.ZERO;
+        List<BacktestSleeveDTO> rows = new ArrayList<>(sleeves.size());
+        for (Sleeve s : sleeves) {
+            for (int c = 0; c < checkpoints; c++) curve[c] += s.curve[c];
+            ticks  += s.ticks;
+            trades += s.trades;
+            BigDecimal e = s.equity();
+            equity   = equity.add(e);
+            realized = realized.add(s.position.realizedPnl());
+            rows.add(new BacktestSleeveDTO(s.assetId, s.symbol, s.ticks, s.trades, s.rejected,
+                e.setScale(4, RoundingMode.HALF_UP), s.position.realizedPnl(), pct(e, s.capital)));
+        }
+
+        double peak = capital.doubleValue(), maxDrawdown = 0;
+        List<BigDecimal> points = new ArrayList<>(checkpoints);
+        for (double v : curve) {
+            peak = Math.max(peak, v);
+            if (peak > 0) maxDrawdown = Math.max(maxDrawdown, (peak - v) / peak);
+            points.add(BigDecimal.valueOf(v).setScale(2, RoundingMode.HALF_UP));
+        }
+
+        return new BacktestResultDTO(strategy, source, sleeves.size(), ticks, trades, capital,
+            equity.setScale(4, RoundingMode.HALF_UP), realized, pct(equity, capital),
+            BigDecimal.valueOf(maxDrawdown * 100).setScale(4, RoundingMode.HALF_UP),
+            elapsedMs, points, rows);
+    }
+
+    private static BigDecimal pct(BigDecimal equity, BigDecimal capital) {
+        return capital.signum() > 0
+            ? equity.subtract(capital).divide(capital, 6, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100)).setScale(4, RoundingMode.HALF_UP)
+            : BigDecimal.ZERO;
+    }
+
+    // ============================================================
+    // Sleeve — one asset's slice of the capital, single-threaded
+    // ============================================================
+    static final class Sleeve implements BacktestStrategy.Account {
+
+        final long     assetId;
+        final String   symbol;
+        final boolean  crypto;
+        final double   basePrice;
+        final BigDecimal capital;
+        final BacktestStrategy strategy;
+        final TradeAccounting.Position position = new TradeAccounting.Position();
+        final double[] curve;
+
+        BigDecimal cash;
+        long ticks, trades, rejected;
+
+        // Double mirrors of cash / position for the per-tick path, refreshed on fills
+        private double cashD, quantityD, avgD;
+        private double lastPrice, lastEquity;
+        private int    checkpoint;
+
+        Sleeve(Asset asset, BacktestStrategy strategy, BigDecimal capital, int checkpoints) {
+            this.assetId   = asset.getId();
+            this.symbol    = asset.getSymbol();
+            this.crypto    = asset.getType() == Asset.AssetType.CRYPTO;
+            this.basePrice = asset.getBasePrice().doubleValue();
+            this.capital   = capital;
+            this.strategy  = strategy;
+            this.curve     = new double[checkpoints];
+            this.cash      = capital;
+            this.cashD     = capital.doubleValue();
+            this.lastEquity = cashD;
+        }
+
+        @Override public double cash()        { return cashD; }
+        @Override public double quantity()    { return quantityD; }
+        @Override public double avgBuyPrice() { return avgD; }
+        @Override public double basePrice()   { return basePrice; }
+
+        void onPrice(long tick, double price, int at) {
+            while (checkpoint < at) curve[checkpoint++] = lastEquity;
+            ticks++;
+            lastPrice = price;
+            double order = strategy.decide(tick, price, this);
+            if (order != 0) fill(order, price);
+            lastEquity = cashD + quantityD * price;
+        }
+
+        void finish() {
+            while (checkpoint < curve.length) curve[checkpoint++] = lastEquity;
+        }
+
+        BigDecimal equity() {
+            return cash.add(position.quantity().multiply(PriceBook.toPrice(lastPrice)));
+        }
+
+        /** Same checks and accounting as a live MARKET order. */
+        private void fill(double order, double price) {
+            BigDecimal px = PriceBook.toPrice(price);
+            if (order > 0) {
+                BigDecimal qty = units(order);
+                if (qty.signum() == 0) return;
+                if (cash.compareTo(TradeAccounting.notional(px, qty)) < 0) {
+                    rejected++;
+                    return;
+                }
+                cash = cash.subtract(position.buy(qty, px));
+            } else {
+                BigDecimal qty = -order >= quantityD ? position.quantity() : units(-order);
+                if (qty.signum() == 0 || position.quantity().compareTo(qty) < 0) {
+                    rejected++;
+                    return;
+                }
+                cash = cash.add(TradeAccounting.notional(px, qty));
+                position.sell(qty, px);
+            }
+            trades++;
+            cashD     = cash.doubleValue();
+            quantityD = position.quantity().doubleValue();
+            avgD      = position.avgBuyPrice().doubleValue();
+        }
+
+        private static BigDecimal units(double qty) {
+            return BigDecimal.valueOf(qty).setScale(8, RoundingMode.DOWN);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.investsimulator.service;
+
+import com.investsimulator.dto.CandleDTO;
+import com.investsimulator.model.PriceCandle;
+import com.investsimulator.model.PriceCandle.Resolution;
+import com.investsimulator.repository.PriceCandleRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Incremental OHLCV aggregation of simulated ticks.
+ *
+ * Every tick is folded into the open 1s, 1m, 5m, 1h and 1d candle of each
+ * active asset. When a tick lands in a new bucket the previous candle is
+ * finished and queued; a scheduled flusher upserts finished candles into
+ * price_candles. Chart queries then read a few hundred pre-aggregated rows
+ * plus the still-open candle from memory, never the raw tick history.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CandleService {
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO price_candles (asset_id, resolution, bucket_time, open, high, low, close, volume) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE high = GREATEST(high, VALUES(high)), low = LEAST(low, VALUES(low)), " +
+        "close = VALUES(close), volume = volume + VALUES(volume)";
+
+    private static final int MAX_CANDLES = 1000;
+
+    private final PriceCandleRepository candleRepo;
+    private final JdbcTemplate          jdbc;
+
+    private final OpenCandles[]          open     = new OpenCandles[Resolution.values().length];
+    private final Queue<FinishedCandle>  finished = new ConcurrentLinkedQueue<>();
+
+    {
+        for (Resolution r : Resolution.values()) open[r.ordinal()] = new OpenCandles(r);
+    }
+
+    @EventListener
+    public synchronized void onTick(PriceTickEvent tick) {
+        PriceBook.Quotes q = tick.current();
+        long epochSecond = q.timestamp / 1000;
+        for (OpenCandles candles : open) {
+            candles.fold(q, epochSecond, finished);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.candles.flush-interval-ms:5000}")
+    public void flush() {
+        List<Object[]> rows = new ArrayList<>();
+        FinishedCandle c;
+        while ((c = finished.poll()) != null) {
+            rows.add(new Object[] {
+                c.assetId(), c.resolution().name(), c.bucketTime(),
+                PriceBook.toPrice(c.open()), PriceBook.toPrice(c.high()),
+                PriceBook.toPrice(c.low()),  PriceBook.toPrice(c.close()),
+                c.volume()
+            });
+        }
+        if (rows.isEmpty()) return;
+
+        try {
+            jdbc.batchUpdate(UPSERT_SQL, rows);
+            log.debug("Flushed {} candles", rows.size());
+        } catch (Exception e) {
+            log.warn("Failed to write {} candles: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    /** Finish every open candle so a restart merges into the same buckets. */
+    @PreDestroy
+    void flushOnShutdown() {
+        synchronized (this) {
+            for (OpenCandles candles : open) candles.finishAll(finished);
+        }
+        flush();
+    }
+
+    /**
+     * Candles for one asset, oldest first. {@code from}/{@code to} are epoch
+     * seconds; when {@code from} is omitted the last {@code limit} buckets
+     * before {@code to} are returned.
+     */
+    public List<CandleDTO> getCandles(Long assetId, String res, Long from, Long to, int limit) {
+        Resolution resolution = Resolution.fromCode(res);
+        int  size  = Math.max(1, Math.min(limit, MAX_CANDLES));
+        long until = to   != null ? to   : System.currentTimeMillis() / 1000;
+        long since = from != null ? from : until - resolution.seconds() * size;
+
+        List<PriceCandle> stored = candleRepo
+            .findByAssetIdAndResolutionAndBucketTimeBetweenOrderByBucketTimeDesc(
+                assetId, resolution, since, until, PageRequest.of(0, size));
+
+        List<CandleDTO> candles = new ArrayList<>(stored.size() + 1);
+        for (int i = stored.size() - 1; i >= 0; i--) {
+            PriceCandle p = stored.get(i);
+            candles.add(new CandleDTO(p.getBucketTime(), p.getOpen(), p.getHigh(),
+                p.getLow(), p.getClose(), p.getVolume()));
+        }
+
+        // Append the still-open bucket (or merge it with its flushed part)
+        CandleDTO live;
+        synchronized (this) {
+            live = open[resolution.ordinal()].snapshot(assetId);
+        }
+        if (live != null && live.time() >= since && live.time() <= until) {
+            int last = candles.size() - 1;
+            if (last >= 0 && candles.get(last).time() == live.time()) {
+                CandleDTO prev = candles.remove(last);
+                live = new CandleDTO(live.time(), prev.open(),
+                    prev.high().max(live.high()), prev.low().min(live.low()),
+                    live.close(), prev.volume() + live.volume());
+            } else if (candles.size() == size) {
+                candles.remove(0);
+            }
+            candles.add(live);
+        }
+        return candles;
+    }
+
+    private record FinishedCandle(long assetId, Resolution resolution, long bucketTime,
+                                  double open, double high, double low, double close, long volume) {}
+
+    // ============================================================
+    // OpenCandles — in-progress bucket per asset, primitive columns
+    // ============================================================
+    private static final class OpenCandles {
+
+        private final Resolution resolution;
+
+        private long[]   bucket = new long[0];   // 0 = no open candle
+        private double[] o      = new double[0];
+        private double[] h      = new double[0];
+        private double[] l      = new double[0];
+        private double[] c      = new double[0];
+        private long[]   v      = new long[0];
+
+        OpenCandles(Resolution resolution) {
+            this.resolution = resolution;
+        }
+
+        void fold(PriceBook.Quotes q, long epochSecond, Queue<FinishedCandle> out) {
+            ensureCapacity(q.price.length);
+            long start = epochSecond - Math.floorMod(epochSecond, resolution.seconds());
+
+            for (int id : q.activeIds) {
+                double price = q.price[id];
+                if (bucket[id] != start) {
+                    if (bucket[id] != 0) out.add(finish(id));
+                    bucket[id] = start;
+                    o[id] = h[id] = l[id] = c[id] = price;
+                    v[id] = 1;
+                } else {
+                    if (price > h[id]) h[id] = price;
+                    if (price < l[id]) l[id] = price;
+                    c[id] = price;
+                    v[id]++;
+                }
+            }
+        }
+
+        void finishAll(Queue<FinishedCandle> out) {
+            for (int id = 0; id < bucket.length; id++) {
+                if (bucket[id] != 0) {
+                    out.add(finish(id));
+                    bucket[id] = 0;
+                }
+            }
+        }
+
+        CandleDTO snapshot(long assetId) {
+            int id = (int) assetId;
+            if (id < 0 || id >= bucket.length || bucket[id] == 0) return null;
+            return new CandleDTO(bucket[id], PriceBook.toPrice(o[id]), PriceBook.toPrice(h[id]),
+                PriceBook.toPrice(l[id]), PriceBook.toPrice(c[id]), v[id]);
+        }
+
+        private FinishedCandle finish(int id) {
+            return new FinishedCandle(id, resolution, bucket[id], o[id], h[id], l[id], c[id], v[id]);
+        }
+
+        private void ensureCapacity(int size) {
+            if (bucket.length >= size) return;
+            bucket = Arrays.copyOf(bucket, size);
+            o = Arrays.copyOf(o, size);
+            h = Arrays.copyOf(h, size);
+            l = Arrays.copyOf(l, size);
+            c = Arrays.copyOf(c, size);
+            v = Arrays.copyOf(v, size);
+        }
+    }
+}
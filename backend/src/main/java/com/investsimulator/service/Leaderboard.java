@@ -0,0 +1,393 @@
+package com.investsimulator.service;
+
+import com.investsimulator.dto.LeaderboardEntryDTO;
+import com.investsimulator.dto.LeaderboardPageDTO;
+import com.investsimulator.model.User;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Users ranked by total equity (cash, cash reserved for open BUY limit
+ * orders, and market value) and by return on initial capital.
+ *
+ * Active users are read once at start-up with a streaming projection;
+ * after that the database is never touched. Cash arrives from committed
+ * trades ({@link #onCash}), market values from the users
+ * {@link PortfolioValuations} re-marked since the last refresh. Each
+ * refresh only re-positions those users, in two order-statistic treaps,
+ * so the cost is O(changed · log n) rather than a re-sort of everyone.
+ *
+ * Reads take the read lock: rank of a user is O(log n) and a page of size
+ * s at any offset is O(s · log n).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class Leaderboard {
+
+    public enum Ranking { EQUITY, RETURN }
+
+    private static final String LOAD_SQL =
+        "SELECT id, full_name, virtual_balance, initial_capital FROM users " +
+        "WHERE is_active = TRUE AND role = 'USER'";
+
+    private final StreamingJdbc       jdbc;
+    private final PortfolioValuations valuations;
+    private final LimitOrderBook      orderBook;
+    private final MeterRegistry       meters;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<Long>        pending = ConcurrentHashMap.newKeySet();   // cash changed since the last refresh
+    private final ReadWriteLock    lock    = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final RankTree[]          trees = { new RankTree(), new RankTree() };
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private Entry[] bySlot = new Entry[1024];
+    private int     nextSlot = 1;   // slot 0 is the trees' nil
+
+    private volatile Instant asOf = Instant.EPOCH;
+    private Timer refreshTimer;
+
+    @PostConstruct
+    public void load() {
+        refreshTimer = Timer.builder("leaderboard.refresh").register(meters);
+        Gauge.builder("leaderboard.users", entries, Map::size).register(meters);
+
+        long start = System.nanoTime();
+        jdbc.streamingQuery(LOAD_SQL, ps -> {}, rs -> {
+            put(rs.getLong(1), rs.getString(2), rs.getBigDecimal(3), rs.getBigDecimal(4));
+        });
+        asOf = Instant.now();
+        log.info("Leaderboard ranked {} users in {} ms", entries.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Add, rename or drop a user after signup or an admin toggle. */
+    public void register(User user) {
+        if (!Boolean.TRUE.equals(user.getIsActive()) || user.getRole() != User.Role.USER) {
+            remove(user.getId());
+        } else {
+            put(user.getId(), user.getFullName(), user.getVirtualBalance(), user.getInitialCapital());
+        }
+    }
+
+    /** A committed balance change; ranked on the next refresh. */
+    public void onCash(long userId, BigDecimal balance) {
+        Entry e = entries.get(userId);
+        if (e == null) return;
+        e.cash = balance;
+        pending.add(userId);
+    }
+
+    /** Re-rank every user whose cash or market value changed. */
+    @Scheduled(fixedDelayString = "${app.leaderboard.refresh-interval-ms:5000}")
+    public void refresh() {
+        refreshTimer.record(() -> {
+            List<Entry> changed = new ArrayList<>();
+            valuations.drainChanged(id -> collect(id, changed));
+            for (Iterator<Long> it = pending.iterator(); it.hasNext(); ) {
+                Long id = it.next();
+                it.remove();
+                collect(id, changed);
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (Entry e : changed) {
+                    if (e.slot != 0) rank(e);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            asOf = Instant.now();
+        });
+    }
+
+    /** One page (0-based) of the ranking, best first. */
+    public LeaderboardPageDTO page(Ranking by, int page, int size) {
+        RankTree tree = trees[by.ordinal()];
+        List<LeaderboardEntryDTO> out = new ArrayList<>(size);
+        long total;
+        lock.readLock().lock();
+        try {
+            total = tree.size();
+            long from = (long) page * size;
+            for (long r = from; r < Math.min(total, from + size); r++) {
+                int slot = tree.select((int) r);
+                out.add(dto(bySlot[slot], r + 1));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new LeaderboardPageDTO(by.name(), page, size, total, asOf.toString(), out);
+    }
+
+    /** The user's own position; empty when they are not ranked (inactive or admin). */
+    public Optional<LeaderboardEntryDTO> rankOf(Ranking by, long userId) {
+        Entry e = entries.get(userId);
+        if (e == null) return Optional.empty();
+        lock.readLock().lock();
+        try {
+            if (e.slot == 0) return Optional.empty();
+            return Optional.of(dto(e, trees[by.ordinal()].rank(e.slot) + 1L));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- Internals ----------------------------------------------------------
+
+    private void collect(long userId, List<Entry> out) {
+        Entry e = entries.get(userId);
+        if (e != null) out.add(e);
+    }
+
+    private void put(long userId, String name, BigDecimal cash, BigDecimal initialCapital) {
+        lock.writeLock().lock();
+        try {
+            Entry e = entries.get(userId);
+            if (e == null) {
+                e = new Entry(userId);
+                e.slot = freeSlots.isEmpty() ? nextSlot++ : freeSlots.pop();
+                if (e.slot >= bySlot.length) bySlot = Arrays.copyOf(bySlot, bySlot.length * 2);
+                bySlot[e.slot] = e;
+                entries.put(userId, e);
+            }
+            e.name           = name;
+            e.initialCapital = initialCapital;
+            e.cash           = cash;
+            rank(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            Entry e = entries.remove(userId);
+            if (e == null || e.slot == 0) return;
+            for (RankTree t : trees) t.remove(e.slot);
+            bySlot[e.slot] = null;
+            freeSlots.push(e.slot);
+            e.slot = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** (Re-)insert {@code e} at its current scores. Caller holds the write lock. */
+    private void rank(Entry e) {
+        // A resting BUY has taken its cash off the balance but still belongs to the user
+        BigDecimal equity = e.cash.add(orderBook.reservedCash(e.userId)).add(valuations.marketValue(e.userId));
+        double ret = e.initialCapital.signum() > 0
+            ? equity.doubleValue() / e.initialCapital.doubleValue() - 1
+            : 0;
+        e.equity = equity;
+        trees[Ranking.EQUITY.ordinal()].put(e.slot, equity.doubleValue(), e.userId);
+        trees[Ranking.RETURN.ordinal()].put(e.slot, ret, e.userId);
+    }
+
+    private LeaderboardEntryDTO dto(Entry e, long rank) {
+        BigDecimal pct = e.initialCapital.signum() > 0
+            ? e.equity.subtract(e.initialCapital)
+                .divide(e.initialCapital, 6, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100))
+            : BigDecimal.ZERO;
+        return new LeaderboardEntryDTO(rank, e.userId, e.name,
+            e.equity.setScale(4, RoundingMode.HALF_UP), pct.setScale(4, RoundingMode.HALF_UP));
+    }
+
+    private static final class Entry {
+        final long userId;
+        String     name;
+        BigDecimal initialCapital = BigDecimal.ZERO;
+        volatile BigDecimal cash  = BigDecimal.ZERO;
+        BigDecimal equity         = BigDecimal.ZERO;   // as last ranked
+        int        slot;                               // 0 once removed
+
+        Entry(long userId) {
+            this.userId = userId;
+        }
+    }
+
+    // ============================================================
+    // RankTree — order-statistic treap over slots
+    // ============================================================
+
+    /**
+     * Treap of slots ordered by score descending, then user id ascending,
+     * with subtree sizes for rank / select. Nodes live in parallel arrays
+     * indexed by slot (0 is nil), so a million users cost a few flat arrays
+     * instead of a million node objects. Not thread-safe.
+     */
+    static final class RankTree {
+
+        private static final int NIL = 0;
+
+        private int[]    left     = new int[1024];
+        private int[]    right    = new int[1024];
+        private int[]    size     = new int[1024];
+        private int[]    priority = new int[1024];
+        private double[] score    = new double[1024];
+        private long[]   user     = new long[1024];
+        private boolean[] linked  = new boolean[1024];
+        private int root = NIL;
+        private int splitLeft, splitRight;
+
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        int size() {
+            return size[root];
+        }
+
+        /** Insert {@code slot}, or move it if it is already in the tree. */
+        void put(int slot, double s, long userId) {
+            ensure(slot);
+            if (linked[slot]) {
+                if (score[slot] == s) return;
+                root = erase(root, slot);
+            }
+            score[slot]    = s;
+            user[slot]     = userId;
+            left[slot]     = NIL;
+            right[slot]    = NIL;
+            size[slot]     = 1;
+            priority[slot] = random.nextInt();
+            linked[slot]   = true;
+            root = insert(root, slot);
+        }
+
+        void remove(int slot) {
+            if (slot >= linked.length || !linked[slot]) return;
+            root = erase(root, slot);
+            linked[slot] = false;
+        }
+
+        /** 0-based position of a linked slot. */
+        int rank(int slot) {
+            int t = root, r = 0;
+            while (t != NIL) {
+                if (t == slot) return r + size[left[t]];
+                if (before(slot, t)) {
+                    t = left[t];
+                } else {
+                    r += size[left[t]] + 1;
+                    t = right[t];
+                }
+            }
+            throw new IllegalStateException("slot " + slot + " is not ranked");
+        }
+
+        /** Slot at 0-based position {@code k}. */
+        int select(int k) {
+            int t = root;
+            while (true) {
+                int ls = size[left[t]];
+                if (k < ls) {
+                    t = left[t];
+                } else if (k == ls) {
+                    return t;
+                } else {
+                    k -= ls + 1;
+                    t = right[t];
+                }
+            }
+        }
+
+        private boolean before(int a, int b) {
+            return score[a] > score[b] || (score[a] == score[b] && user[a] < user[b]);
+        }
+
+        private int insert(int t, int n) {
+            if (t == NIL) return n;
+            if (priority[n] > priority[t]) {
+                split(t, n);
+                left[n]  = splitLeft;
+                right[n] = splitRight;
+                update(n);
+                return n;
+            }
+            if (before(n, t)) left[t] = insert(left[t], n);
+            else              right[t] = insert(right[t], n);
+            update(t);
+            return t;
+        }
+
+        private int erase(int t, int n) {
+            if (t == n) return merge(left[t], right[t]);
+            if (before(n, t)) left[t] = erase(left[t], n);
+            else              right[t] = erase(right[t], n);
+            update(t);
+            return t;
+        }
+
+        /** Split {@code t} into nodes ordered before {@code n} and the rest. */
+        private void split(int t, int n) {
+            if (t == NIL) {
+                splitLeft = splitRight = NIL;
+            } else if (before(t, n)) {
+                split(right[t], n);
+                right[t] = splitLeft;
+                update(t);
+                splitLeft = t;
+            } else {
+                split(left[t], n);
+                left[t] = splitRight;
+                update(t);
+                splitRight = t;
+            }
+        }
+
+        private int merge(int a, int b) {
+            if (a == NIL) return b;
+            if (b == NIL) return a;
+            if (priority[a] > priority[b]) {
+                right[a] = merge(right[a], b);
+                update(a);
+                return a;
+            }
+            left[b] = merge(a, left[b]);
+            update(b);
+            return b;
+        }
+
+        private void update(int t) {
+            size[t] = 1 + size[left[t]] + size[right[t]];
+        }
+
+        private void ensure(int slot) {
+            if (slot < left.length) return;
+            int n = Math.max(slot + 1, left.length * 2);
+            left     = Arrays.copyOf(left, n);
+            right    = Arrays.copyOf(right, n);
+            size     = Arrays.copyOf(size, n);
+            priority = Arrays.copyOf(priority, n);
+            score    = Arrays.copyOf(score, n);
+            user     = Arrays.copyOf(user, n);
+            linked   = Arrays.copyOf(linked, n);
+        }
+    }
+}
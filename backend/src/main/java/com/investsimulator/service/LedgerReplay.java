@@ -0,0 +1,327 @@
+package com.investsimulator.service;
+
+import com.investsimulator.dto.LedgerReportDTO;
+import com.investsimulator.exception.ResourceNotFoundException;
+import com.investsimulator.model.*;
+import com.investsimulator.repository.*;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Snapshots and replay for the {@link TradeEventLog}.
+ *
+ * A snapshot is every user's balance, realized P&L and positions as of one
+ * sequence number. Replay loads the newest snapshot and applies the log tail
+ * on top; because events carry post-trade state this is a map overwrite per
+ * event, over primitive longs, so millions of events replay in seconds.
+ *
+ * When the log is first enabled a baseline snapshot is taken from the
+ * database at seq 0, so users who traded before the log existed replay too.
+ * New snapshots are cut on a schedule, which bounds the tail to replay.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LedgerReplay {
+
+    private static final int    MAGIC           = 0x4C454447;   // "LEDG"
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final int    SNAPSHOTS_KEPT  = 2;
+
+    private final TradeEventLog       eventLog;
+    private final UserRepository      userRepo;
+    private final AssetRepository     assetRepo;
+    private final HoldingRepository   holdingRepo;
+    private final PortfolioRepository portfolioRepo;
+    private final PortfolioValuations valuations;
+    private final Leaderboard         leaderboard;
+    private final UserLocks           userLocks;
+    private final TransactionTemplate txTemplate;
+
+    @Value("${app.ledger.dir:./data/ledger}")
+    private String dir;
+
+    @PostConstruct
+    void baseline() throws IOException {
+        if (!eventLog.isEnabled() || latestSnapshot().isPresent()) return;
+        if (eventLog.lastSeq() > 0) {
+            log.warn("Trade event log has {} events but no snapshot; replay starts from an empty state",
+                eventLog.lastSeq());
+            return;
+        }
+
+        State state = new State(0);
+        userRepo.findAll().forEach(u -> state.user(u.getId()).balance = TradeEvent.unscaled(u.getVirtualBalance(), 4));
+        portfolioRepo.findAll().forEach(p -> state.user(p.getUser().getId()).realizedPnl =
+            TradeEvent.unscaled(p.getRealizedPnl(), 4));
+        holdingRepo.findAll().forEach(h -> state.user(h.getUser().getId()).positions.put(h.getAsset().getId(),
+            new long[] {
+                TradeEvent.unscaled(h.getQuantity(), 8),
+                TradeEvent.unscaled(h.getAvgBuyPrice(), 6),
+                TradeEvent.unscaled(h.getTotalInvested(), 4)
+            }));
+        write(state);
+        log.info("Ledger baseline snapshot taken for {} users", state.users.size());
+    }
+
+    /** Rebuild every user's state from the newest snapshot plus the log tail. */
+    public State replay() {
+        try {
+            State state = latestSnapshot().map(this::read).orElseGet(() -> new State(0));
+            long to = eventLog.lastSeq();
+            eventLog.read(state.seq + 1, to, state::apply);
+            return state;
+        } catch (UncheckedIOException e) {
+            throw new IllegalStateException("Ledger replay failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.ledger.snapshot-interval-ms:600000}",
+               initialDelayString = "${app.ledger.snapshot-interval-ms:600000}")
+    public synchronized void snapshot() {
+        if (!eventLog.isEnabled()) return;
+        long snapshotSeq = latestSnapshot().map(LedgerReplay::seqOf).orElse(0L);
+        if (eventLog.lastSeq() == snapshotSeq) return;
+        try {
+            long start = System.nanoTime();
+            State state = replay();
+            write(state);
+            log.info("Ledger snapshot at seq {} ({} users) in {} ms",
+                state.seq, state.users.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            log.error("Ledger snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Replay the log and compare it with the database. The bulk reads are not
+     * consistent with the replay, so every user that looks drifted is checked
+     * again under the user's lock, against the log tail and fresh rows, and
+     * only drift that survives is reported.
+     */
+    public LedgerReportDTO verify() {
+        long start = System.nanoTime();
+        long snapshotSeq = latestSnapshot().map(LedgerReplay::seqOf).orElse(0L);
+        State state = replay();
+        long replaySeq = state.seq;
+        long replayMs = (System.nanoTime() - start) / 1_000_000;
+
+        Map<Long, Map<Long, Holding>> held = new HashMap<>();
+        holdingRepo.findAll().forEach(h ->
+            held.computeIfAbsent(h.getUser().getId(), k -> new HashMap<>()).put(h.getAsset().getId(), h));
+
+        List<Long> suspects = new ArrayList<>();
+        for (User u : userRepo.findAll()) {
+            UserState s = state.users.get(u.getId());
+            if (s == null) continue;   // registered after the last event, nothing to compare
+            if (!compare(u, s, held.getOrDefault(u.getId(), Map.of())).isEmpty()) suspects.add(u.getId());
+        }
+
+        List<String> drift = new ArrayList<>();
+        for (Long userId : suspects) {
+            drift.addAll(userLocks.withUser(userId, () -> {
+                // Fills append to the log before the lock is released, so the tail is complete here
+                eventLog.read(state.seq + 1, eventLog.lastSeq(), state::apply);
+                User u = userRepo.findById(userId).orElse(null);
+                if (u == null) return List.<String>of();
+                Map<Long, Holding> dbPositions = new HashMap<>();
+                holdingRepo.findAllByUserId(userId).forEach(h -> dbPositions.put(h.getAsset().getId(), h));
+                return compare(u, state.users.get(userId), dbPositions);
+            }));
+        }
+
+        return new LedgerReportDTO(replaySeq, snapshotSeq, replaySeq - snapshotSeq,
+            replayMs, state.users.size(), drift);
+    }
+
+    private static List<String> compare(User u, UserState s, Map<Long, Holding> dbPositions) {
+        List<String> drift = new ArrayList<>();
+        if (TradeEvent.unscaled(u.getVirtualBalance(), 4) != s.balance) {
+            drift.add(String.format("user %d balance: db=%s log=%s",
+                u.getId(), u.getVirtualBalance(), BigDecimal.valueOf(s.balance, 4)));
+        }
+        Set<Long> assets = new TreeSet<>(dbPositions.keySet());
+        assets.addAll(s.positions.keySet());
+        for (Long assetId : assets) {
+            Holding h   = dbPositions.get(assetId);
+            long[]  pos = s.positions.get(assetId);
+            long dbQty  = h != null ? TradeEvent.unscaled(h.getQuantity(), 8) : 0;
+            long logQty = pos != null ? pos[0] : 0;
+            if (dbQty != logQty) {
+                drift.add(String.format("user %d asset %d quantity: db=%s log=%s",
+                    u.getId(), assetId, BigDecimal.valueOf(dbQty, 8), BigDecimal.valueOf(logQty, 8)));
+            }
+        }
+        return drift;
+    }
+
+    /** Restore one user's balance, holdings and realized P&L from the log. */
+    public void rebuildUser(Long userId) {
+        userLocks.withUser(userId, () -> {
+            // Replayed under the lock so no fill for this user lands in between
+            UserState s = replay().users.get(userId);
+            if (s == null) throw new ResourceNotFoundException("No ledger history for user: " + userId);
+
+            List<Holding> restored = txTemplate.execute(status -> restore(userId, s));
+            valuations.reset(userId, restored, BigDecimal.valueOf(s.realizedPnl, 4));
+            leaderboard.onCash(userId, BigDecimal.valueOf(s.balance, 4));
+            log.info("Rebuilt user {} from ledger: balance={} positions={}",
+                userId, BigDecimal.valueOf(s.balance, 4), restored.size());
+            return null;
+        });
+    }
+
+    private List<Holding> restore(Long userId, UserState s) {
+        User user = userRepo.findByIdForUpdate(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("User not found: " + userId));
+        user.setVirtualBalance(BigDecimal.valueOf(s.balance, 4));
+        userRepo.save(user);
+
+        Map<Long, Holding> current = new HashMap<>();
+        holdingRepo.findAllByUserId(userId).forEach(h -> current.put(h.getAsset().getId(), h));
+        for (Holding h : current.values()) {
+            if (!s.positions.containsKey(h.getAsset().getId())) holdingRepo.delete(h);
+        }
+
+        List<Holding> restored = new ArrayList<>();
+        s.positions.forEach((assetId, pos) -> {
+            Holding h = current.get(assetId);
+            if (h == null) {
+                Asset asset = assetRepo.findById(assetId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Asset not found: " + assetId));
+                h = Holding.builder().user(user).asset(asset).build();
+            }
+            h.setQuantity(BigDecimal.valueOf(pos[0], 8));
+            h.setAvgBuyPrice(BigDecimal.valueOf(pos[1], 6));
+            h.setTotalInvested(BigDecimal.valueOf(pos[2], 4));
+            restored.add(holdingRepo.save(h));
+        });
+
+        portfolioRepo.findByUserId(userId).ifPresent(p -> {
+            p.setRealizedPnl(BigDecimal.valueOf(s.realizedPnl, 4));
+            portfolioRepo.save(p);
+        });
+        return restored;
+    }
+
+    // ---- Snapshot files -----------------------------------------------------
+
+    private void write(State state) throws IOException {
+        Path root = Paths.get(dir);
+        Files.createDirectories(root);
+        Path tmp = root.resolve(SNAPSHOT_PREFIX + "tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeLong(state.seq);
+            out.writeInt(state.users.size());
+            for (Map.Entry<Long, UserState> e : state.users.entrySet()) {
+                UserState u = e.getValue();
+                out.writeLong(e.getKey());
+                out.writeLong(u.balance);
+                out.writeLong(u.realizedPnl);
+                out.writeInt(u.positions.size());
+                for (Map.Entry<Long, long[]> p : u.positions.entrySet()) {
+                    out.writeLong(p.getKey());
+                    for (long v : p.getValue()) out.writeLong(v);
+                }
+            }
+        }
+        Path target = root.resolve(String.format("%s%020d.bin", SNAPSHOT_PREFIX, state.seq));
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        List<Path> all = snapshots();
+        for (int i = 0; i < all.size() - SNAPSHOTS_KEPT; i++) Files.deleteIfExists(all.get(i));
+    }
+
+    private State read(Path file) {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a ledger snapshot: " + file);
+            State state = new State(in.readLong());
+            int users = in.readInt();
+            for (int i = 0; i < users; i++) {
+                UserState u = state.user(in.readLong());
+                u.balance     = in.readLong();
+                u.realizedPnl = in.readLong();
+                int positions = in.readInt();
+                for (int j = 0; j < positions; j++) {
+                    u.positions.put(in.readLong(), new long[] {in.readLong(), in.readLong(), in.readLong()});
+                }
+            }
+            return state;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Optional<Path> latestSnapshot() {
+        List<Path> all = snapshots();
+        return all.isEmpty() ? Optional.empty() : Optional.of(all.get(all.size() - 1));
+    }
+
+    private List<Path> snapshots() {
+        Path root = Paths.get(dir);
+        if (!Files.isDirectory(root)) return List.of();
+        try (Stream<Path> files = Files.list(root)) {
+            return files
+                .filter(p -> p.getFileName().toString().matches(SNAPSHOT_PREFIX + "\\d{20}\\.bin"))
+                .sorted()
+                .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long seqOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - ".bin".length()));
+    }
+
+    // ---- Replayed state -----------------------------------------------------
+
+    public static final class State {
+        long seq;
+        final Map<Long, UserState> users = new HashMap<>();
+
+        State(long seq) {
+            this.seq = seq;
+        }
+
+        UserState user(long userId) {
+            return users.computeIfAbsent(userId, k -> new UserState());
+        }
+
+        void apply(TradeEvent e) {
+            UserState u = user(e.userId());
+            u.balance = e.balanceAfter();
+            if (e.type() != TradeEvent.Type.CASH) {
+                if (e.heldAfter() == 0) {
+                    u.positions.remove(e.assetId());
+                } else {
+                    u.positions.put(e.assetId(), new long[] {e.heldAfter(), e.avgPriceAfter(), e.investedAfter()});
+                }
+                u.realizedPnl += e.realizedPnl();
+            }
+            seq = e.seq();
+        }
+    }
+
+    /** Balance and realized P&L at scale 4; positions: assetId -> {qty(8), avg(6), invested(4)}. */
+    static final class UserState {
+        long balance;
+        long realizedPnl;
+        final Map<Long, long[]> positions = new HashMap<>();
+    }
+}
@@ -0,0 +1,183 @@
+package com.investsimulator.service;
+
+import com.investsimulator.model.LimitOrder;
+import com.investsimulator.model.Transaction;
+import com.investsimulator.repository.LimitOrderRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * In-memory book of resting limit orders.
+ *
+ * Each asset keeps its bids and asks in TreeMaps keyed by limit price (in
+ * micro-units), each level a FIFO queue. When the price moves to p, the
+ * crossed bids are exactly the levels at or above p and the crossed asks the
+ * levels at or below p, so {@link #cross} only walks levels that fill —
+ * resting orders far from the market cost nothing per tick.
+ *
+ * The book also tracks how much of each holding is promised to open SELL
+ * orders; market sells may only use the unreserved remainder. A crossed
+ * order keeps its reservation while its fill is in flight, until
+ * {@link #settle} (committed) or {@link #restore} (failed, back in the book).
+ * Cash for BUY orders is reserved on the user's balance itself (see
+ * LimitOrder); the book keeps a per-user total of it for the leaderboard.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LimitOrderBook {
+
+    private final LimitOrderRepository orderRepo;
+
+    private final Map<Long, AssetBook>             books    = new HashMap<>();
+    private final Map<Long, Resting>               byId     = new HashMap<>();
+    private final Map<Long, Resting>               inFlight = new HashMap<>();   // crossed, fill not committed
+    private final Map<Long, Map<Long, BigDecimal>> reserved = new HashMap<>();   // userId -> assetId -> qty
+    private final Map<Long, BigDecimal>            reservedCash = new HashMap<>();   // userId -> BUY reservations
+
+    @PostConstruct
+    public void load() {
+        List<LimitOrder> open = orderRepo.findAllByStatus(LimitOrder.Status.OPEN);
+        open.forEach(o -> add(Resting.of(o)));
+        log.info("Limit order book loaded with {} open orders", open.size());
+    }
+
+    public synchronized void add(Resting order) {
+        rest(order);
+        if (order.side() == Transaction.TradeType.SELL) {
+            reserved.computeIfAbsent(order.userId(), k -> new HashMap<>())
+                .merge(order.assetId(), order.quantity(), BigDecimal::add);
+        } else if (order.reservedAmount().signum() > 0) {
+            reservedCash.merge(order.userId(), order.reservedAmount(), BigDecimal::add);
+        }
+    }
+
+    /** Remove a resting order; false if it is gone (filled or being filled). */
+    public synchronized boolean remove(long orderId) {
+        Resting order = byId.remove(orderId);
+        if (order == null) return false;
+
+        AssetBook book = books.get(order.assetId());
+        TreeMap<Long, ArrayDeque<Resting>> side = book.side(order.side());
+        ArrayDeque<Resting> level = side.get(order.limitMicros());
+        level.removeIf(o -> o.orderId() == orderId);
+        if (level.isEmpty()) side.remove(order.limitMicros());
+        if (book.isEmpty()) books.remove(order.assetId());
+        release(order);
+        return true;
+    }
+
+    /**
+     * Take every order the new price crosses out of the book, in price-time
+     * priority. Reservations stay until the caller settles or restores each.
+     */
+    public synchronized List<Resting> cross(long assetId, long priceMicros) {
+        AssetBook book = books.get(assetId);
+        if (book == null) return List.of();
+
+        List<Resting> crossed = new ArrayList<>();
+        drain(book.bids.tailMap(priceMicros, true).descendingMap(), crossed);   // bid >= price
+        drain(book.asks.headMap(priceMicros, true), crossed);                   // ask <= price
+        if (book.isEmpty()) books.remove(assetId);
+        return crossed;
+    }
+
+    /** Release a crossed order's reservation once its fill or cancellation has committed. */
+    public synchronized void settle(long orderId) {
+        Resting order = inFlight.remove(orderId);
+        if (order != null) release(order);
+    }
+
+    /** Put a crossed order whose fill failed back in the book, still reserved. */
+    public synchronized void restore(Resting order) {
+        if (inFlight.remove(order.orderId()) != null) rest(order);
+    }
+
+    public synchronized Set<Long> assetIds() {
+        return new HashSet<>(books.keySet());
+    }
+
+    /** Quantity of the holding promised to open SELL orders. */
+    public synchronized BigDecimal reservedQuantity(long userId, long assetId) {
+        return reserved.getOrDefault(userId, Map.of()).getOrDefault(assetId, BigDecimal.ZERO);
+    }
+
+    /** Cash held back from the user's balance by open (or in-flight) BUY orders. */
+    public synchronized BigDecimal reservedCash(long userId) {
+        return reservedCash.getOrDefault(userId, BigDecimal.ZERO);
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    private void rest(Resting order) {
+        books.computeIfAbsent(order.assetId(), k -> new AssetBook())
+            .side(order.side())
+            .computeIfAbsent(order.limitMicros(), k -> new ArrayDeque<>())
+            .add(order);
+        byId.put(order.orderId(), order);
+    }
+
+    private void drain(NavigableMap<Long, ArrayDeque<Resting>> levels, List<Resting> out) {
+        for (Iterator<ArrayDeque<Resting>> it = levels.values().iterator(); it.hasNext(); ) {
+            for (Resting o : it.next()) {
+                byId.remove(o.orderId());
+                inFlight.put(o.orderId(), o);
+                out.add(o);
+            }
+            it.remove();
+        }
+    }
+
+    private void release(Resting order) {
+        if (order.side() != Transaction.TradeType.SELL) {
+            if (order.reservedAmount().signum() > 0) {
+                BigDecimal left = reservedCash.get(order.userId()).subtract(order.reservedAmount());
+                if (left.signum() <= 0) reservedCash.remove(order.userId()); else reservedCash.put(order.userId(), left);
+            }
+            return;
+        }
+        Map<Long, BigDecimal> byAsset = reserved.get(order.userId());
+        BigDecimal left = byAsset.get(order.assetId()).subtract(order.quantity());
+        if (left.signum() <= 0) byAsset.remove(order.assetId()); else byAsset.put(order.assetId(), left);
+        if (byAsset.isEmpty()) reserved.remove(order.userId());
+    }
+
+    static long toMicros(BigDecimal price) {
+        return price.setScale(6, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static long toMicros(double price) {
+        return Math.round(price * 1_000_000.0);
+    }
+
+    public record Resting(long orderId, long userId, long assetId, Transaction.TradeType side,
+                          BigDecimal quantity, long limitMicros, BigDecimal reservedAmount) {
+
+        static Resting of(LimitOrder o) {
+            return new Resting(o.getId(), o.getUser().getId(), o.getAsset().getId(), o.getSide(),
+                o.getQuantity(), toMicros(o.getLimitPrice()),
+                o.getReservedAmount() != null ? o.getReservedAmount() : BigDecimal.ZERO);
+        }
+    }
+
+    private static final class AssetBook {
+        final TreeMap<Long, ArrayDeque<Resting>> bids = new TreeMap<>();
+        final TreeMap<Long, ArrayDeque<Resting>> asks = new TreeMap<>();
+
+        TreeMap<Long, ArrayDeque<Resting>> side(Transaction.TradeType side) {
+            return side == Transaction.TradeType.BUY ? bids : asks;
+        }
+
+        boolean isEmpty() {
+            return bids.isEmpty() && asks.isEmpty();
+        }
+    }
+}
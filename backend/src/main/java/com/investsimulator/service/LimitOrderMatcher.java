@@ -0,0 +1,77 @@
+package com.investsimulator.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Matches resting limit orders against each price tick.
+ *
+ * Only assets that have resting orders and whose price moved are looked at,
+ * and for those only the crossed price levels (see {@link LimitOrderBook#cross}).
+ * Crossed orders are settled off the simulation thread by
+ * {@link TradingService#fillLimitOrder}, which takes the user's lock.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LimitOrderMatcher {
+
+    private final LimitOrderBook orderBook;
+    private final TradingService tradingService;
+
+    @Value("${app.trading.limit-fill-threads:2}")
+    private int fillThreads;
+
+    private ExecutorService fills;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger seq = new AtomicInteger();
+        fills = Executors.newFixedThreadPool(fillThreads, r -> {
+            Thread t = new Thread(r, "limit-fill-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        fills.shutdown();
+    }
+
+    @EventListener
+    public void onTick(PriceTickEvent tick) {
+        PriceBook.Quotes q = tick.current();
+        for (long assetId : orderBook.assetIds()) {
+            int id = (int) assetId;
+            if (!q.contains(assetId) || !q.active[id] || !tick.moved(id)) continue;
+
+            List<LimitOrderBook.Resting> crossed =
+                orderBook.cross(assetId, LimitOrderBook.toMicros(q.price[id]));
+            for (LimitOrderBook.Resting order : crossed) {
+                fills.execute(() -> fill(order, PriceBook.toPrice(q.price[id])));
+            }
+        }
+    }
+
+    private void fill(LimitOrderBook.Resting order, BigDecimal price) {
+        try {
+            tradingService.fillLimitOrder(order, price);
+        } catch (Exception e) {
+            // Still OPEN and still reserved — put it back so the next crossing retries
+            log.error("Limit order {} failed to fill at {}: {}", order.orderId(), price, e.getMessage());
+            orderBook.restore(order);
+        }
+    }
+}
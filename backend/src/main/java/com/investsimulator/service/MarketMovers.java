@@ -0,0 +1,251 @@
+package com.investsimulator.service;
+
+import com.investsimulator.dto.AssetDTO;
+import com.investsimulator.model.Asset;
+import com.investsimulator.repository.AssetRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Top gainers, losers and absolute movers, ranked once per tick.
+ *
+ * Every tick, one pass over the active assets offers each change % to
+ * bounded min-heaps of size {@code app.movers.max-k}: one set for the whole
+ * market, one per {@link Asset.AssetType} and one per sector. That is
+ * O(n log k) on the simulation thread with no sort and no query; the
+ * frozen rankings are published as an immutable {@link Board} and
+ * {@code /api/market/movers} only maps the first k ids to DTOs.
+ *
+ * Gainers only hold assets that are up, losers only those that are down.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MarketMovers {
+
+    public enum Ranking { GAINERS, LOSERS, ACTIVE }
+
+    private static final int ALL = 0;
+    private static final int TYPE_GROUPS = Asset.AssetType.values().length;
+
+    private final AssetRepository assetRepo;
+    private final PriceBook       priceBook;
+
+    @Value("${app.movers.max-k:50}")
+    private int maxK;
+
+    private volatile Catalog catalog = Catalog.EMPTY;
+    private volatile Board   board;
+
+    @PostConstruct
+    public void load() {
+        List<Asset> assets = assetRepo.findAll();
+        synchronized (this) {
+            catalog = Catalog.EMPTY.with(assets);
+        }
+        board = rank(priceBook.quotes());
+        log.info("Market movers tracking {} assets across {} sectors (k <= {})",
+            assets.size(), catalog.sectors.length, maxK);
+    }
+
+    /** Add or refresh an asset's name / sector (after admin add / toggle). */
+    public synchronized void register(Asset asset) {
+        catalog = catalog.with(List.of(asset));
+    }
+
+    @EventListener
+    public void onTick(PriceTickEvent tick) {
+        board = rank(tick.current());
+    }
+
+    public int maxK() {
+        return maxK;
+    }
+
+    /**
+     * Top {@code k} (at most {@link #maxK()}) by {@code ranking}. A sector
+     * takes precedence over a type; with both, the sector list is narrowed
+     * to the type and may come back shorter than k.
+     */
+    public List<AssetDTO> top(Ranking ranking, Asset.AssetType type, String sector, int k) {
+        Board b = board;
+        Catalog c = b.catalog;
+        int group = ALL;
+        if (sector != null) {
+            Integer s = c.sectorIndex.get(Catalog.key(sector));
+            if (s == null) return List.of();
+            group = 1 + TYPE_GROUPS + s;
+        } else if (type != null) {
+            group = 1 + type.ordinal();
+        }
+
+        int[] ids = b.ranked[group][ranking.ordinal()];
+        List<AssetDTO> out = new ArrayList<>(Math.min(k, ids.length));
+        for (int i = 0; i < ids.length && out.size() < k; i++) {
+            int id = ids[i];
+            Asset a = c.asset(id);
+            if (a == null || (type != null && b.quotes.crypto[id] != (type == Asset.AssetType.CRYPTO))) continue;
+            out.add(new AssetDTO(a.getId(), a.getSymbol(), a.getName(), a.getType().name(), a.getSector(),
+                PriceBook.toPrice(b.quotes.price[id]), PriceBook.toChangePct(b.quotes.changePct[id])));
+        }
+        return out;
+    }
+
+    Board rank(PriceBook.Quotes q) {
+        Catalog c = catalog;
+        int groups = 1 + TYPE_GROUPS + c.sectors.length;
+        TopK[][] heaps = new TopK[groups][Ranking.values().length];
+
+        for (int id : q.activeIds) {
+            double pct = q.changePct[id];
+            if (Double.isNaN(pct)) continue;
+            int type   = q.crypto[id] ? Asset.AssetType.CRYPTO.ordinal() : Asset.AssetType.STOCK.ordinal();
+            int sector = id < c.sectorOf.length ? c.sectorOf[id] : -1;
+
+            offer(heaps, ALL, id, pct);
+            offer(heaps, 1 + type, id, pct);
+            if (sector >= 0) offer(heaps, 1 + TYPE_GROUPS + sector, id, pct);
+        }
+
+        int[][][] ranked = new int[groups][Ranking.values().length][];
+        for (int g = 0; g < groups; g++) {
+            for (int r = 0; r < ranked[g].length; r++) {
+                ranked[g][r] = heaps[g][r] == null ? new int[0] : heaps[g][r].drainDescending();
+            }
+        }
+        return new Board(q, c, ranked);
+    }
+
+    private void offer(TopK[][] heaps, int group, int id, double pct) {
+        TopK[] h = heaps[group];
+        if (h[0] == null) {
+            for (int r = 0; r < h.length; r++) h[r] = new TopK(maxK);
+        }
+        if (pct > 0) h[Ranking.GAINERS.ordinal()].offer(id, pct);
+        if (pct < 0) h[Ranking.LOSERS.ordinal()].offer(id, -pct);
+        h[Ranking.ACTIVE.ordinal()].offer(id, Math.abs(pct));
+    }
+
+    /** One tick's rankings: [group][ranking] -> asset ids, best first. */
+    record Board(PriceBook.Quotes quotes, Catalog catalog, int[][][] ranked) {}
+
+    // ============================================================
+    // Catalog — reference data the price book does not carry
+    // ============================================================
+    static final class Catalog {
+
+        static final Catalog EMPTY = new Catalog(new Asset[0], new int[0], new String[0], Map.of());
+
+        final Asset[]              byId;
+        final int[]                sectorOf;      // -1 when the asset has no sector
+        final String[]             sectors;
+        final Map<String, Integer> sectorIndex;   // lower-cased sector -> index
+
+        private Catalog(Asset[] byId, int[] sectorOf, String[] sectors, Map<String, Integer> sectorIndex) {
+            this.byId        = byId;
+            this.sectorOf    = sectorOf;
+            this.sectors     = sectors;
+            this.sectorIndex = sectorIndex;
+        }
+
+        Asset asset(int id) {
+            return id < byId.length ? byId[id] : null;
+        }
+
+        Catalog with(List<Asset> assets) {
+            int size = byId.length;
+            for (Asset a : assets) size = Math.max(size, Math.toIntExact(a.getId()) + 1);
+            Asset[] ids = Arrays.copyOf(byId, size);
+            for (Asset a : assets) ids[a.getId().intValue()] = a;
+
+            Map<String, Integer> index = new HashMap<>(sectorIndex);
+            List<String> names = new ArrayList<>(Arrays.asList(sectors));
+            int[] of = new int[size];
+            for (int id = 0; id < size; id++) {
+                String s = ids[id] == null ? null : ids[id].getSector();
+                if (s == null || s.isBlank()) {
+                    of[id] = -1;
+                    continue;
+                }
+                of[id] = index.computeIfAbsent(key(s), k -> {
+                    names.add(s);
+                    return names.size() - 1;
+                });
+            }
+            return new Catalog(ids, of, names.toArray(String[]::new), index);
+        }
+
+        static String key(String sector) {
+            return sector.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /** Bounded min-heap of (score, id); keeps the k highest scores. */
+    static final class TopK {
+
+        private final int[]    ids;
+        private final double[] scores;
+        private int size;
+
+        TopK(int k) {
+            ids    = new int[k];
+            scores = new double[k];
+        }
+
+        void offer(int id, double score) {
+            if (size < ids.length) {
+                ids[size] = id;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (size > 0 && score > scores[0]) {
+                ids[0] = id;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        /** Empties the heap, returning ids from highest to lowest score. */
+        int[] drainDescending() {
+            int[] out = new int[size];
+            for (int i = out.length - 1; i >= 0; i--) {
+                out[i] = ids[0];
+                size--;
+                ids[0] = ids[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return out;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (scores[parent] <= scores[i]) return;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int l = 2 * i + 1, r = l + 1, min = i;
+                if (l < size && scores[l] < scores[min]) min = l;
+                if (r < size && scores[r] < scores[min]) min = r;
+                if (min == i) return;
+                swap(i, min);
+                i = min;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int id = ids[a]; ids[a] = ids[b]; ids[b] = id;
+            double s = scores[a]; scores[a] = scores[b]; scores[b] = s;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.investsimulator.service;
+
+import com.investsimulator.model.Asset;
+import com.investsimulator.model.Holding;
+import com.investsimulator.repository.HoldingRepository;
+import com.investsimulator.repository.PortfolioRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Incrementally maintained portfolio valuations.
+ *
+ * Every user's open positions are held in memory together with running
+ * totals (market value, cost, winning positions). Trades replace a single
+ * position after commit; price ticks re-mark only the positions in assets
+ * that moved, found through an asset → positions reverse index. Each
+ * position remembers the price it was last marked at, so a re-mark adds the
+ * exact difference and the totals never drift from Σ quantity × price.
+ *
+ * The dashboard reads a {@link Snapshot} instead of reloading holdings, and
+ * portfolios.total_invested / total_current_value are written behind in
+ * batches for users whose valuation changed. Users whose market value moved
+ * are also queued for the {@link Leaderboard}, see {@link #drainChanged}.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PortfolioValuations {
+
+    private static final String UPDATE_SQL =
+        "UPDATE portfolios SET total_invested = ?, total_current_value = ?, updated_at = ? WHERE user_id = ?";
+
+    private final HoldingRepository   holdingRepo;
+    private final PortfolioRepository portfolioRepo;
+    private final PriceBook           priceBook;
+    private final JdbcTemplate        jdbc;
+
+    @Value("${app.portfolio.flush-batch-size:500}")
+    private int batchSize;
+
+    private final Map<Long, Valuation>     byUser  = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Position>> holders = new ConcurrentHashMap<>();   // assetId -> positions
+    private final Set<Long>                changed = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void load() {
+        portfolioRepo.findAll().forEach(p -> valuation(p.getUser().getId()).realizedPnl = p.getRealizedPnl());
+        List<Holding> all = holdingRepo.findAllWithAsset();
+        for (Holding h : all) {
+            onTrade(h.getUser().getId(), h.getAsset(),
+                h.getQuantity(), h.getAvgBuyPrice(), h.getTotalInvested(), BigDecimal.ZERO);
+        }
+        log.info("Portfolio valuations loaded for {} users, {} positions", byUser.size(), all.size());
+    }
+
+    /**
+     * Apply a committed change to one holding. A zero quantity means the
+     * position was closed; {@code realizedPnl} is the P&L booked by the trade.
+     */
+    public void onTrade(long userId, Asset asset, BigDecimal quantity, BigDecimal avgBuyPrice,
+                        BigDecimal totalInvested, BigDecimal realizedPnl) {
+        Valuation v = valuation(userId);
+        synchronized (v) {
+            Position old = v.positions.remove(asset.getId());
+            if (old != null) {
+                v.subtract(old);
+                holdersOf(asset.getId()).remove(old);
+            }
+            if (quantity.signum() > 0) {
+                BigDecimal price = priceBook.getPrice(asset.getId());
+                Position p = new Position(v, asset, quantity, avgBuyPrice, totalInvested,
+                    price != null ? price : asset.getCurrentPrice());
+                v.positions.put(asset.getId(), p);
+                v.add(p);
+                holdersOf(asset.getId()).add(p);
+            }
+            v.realizedPnl = v.realizedPnl.add(realizedPnl);
+            v.dirty = true;
+        }
+        changed.add(userId);
+    }
+
+    /** Replace a user's positions wholesale, e.g. after a rebuild from the trade ledger. */
+    public void reset(long userId, List<Holding> holdings, BigDecimal realizedPnl) {
+        Valuation v = valuation(userId);
+        synchronized (v) {
+            for (Position p : v.positions.values()) {
+                v.subtract(p);
+                holdersOf(p.asset.getId()).remove(p);
+            }
+            v.positions.clear();
+            v.realizedPnl = BigDecimal.ZERO;
+            for (Holding h : holdings) {
+                onTrade(userId, h.getAsset(), h.getQuantity(), h.getAvgBuyPrice(), h.getTotalInvested(), BigDecimal.ZERO);
+            }
+            v.realizedPnl = realizedPnl;
+            v.dirty = true;
+        }
+        changed.add(userId);
+    }
+
+    @EventListener
+    public void onTick(PriceTickEvent tick) {
+        PriceBook.Quotes q = tick.current();
+        for (Map.Entry<Long, Set<Position>> e : holders.entrySet()) {
+            int id = e.getKey().intValue();
+            if (e.getValue().isEmpty() || !q.contains(id) || !tick.moved(id)) continue;
+
+            BigDecimal price = PriceBook.toPrice(q.price[id]);
+            for (Position p : e.getValue()) {
+                synchronized (p.owner) {
+                    if (p.closed) continue;
+                    p.owner.remark(p, price);
+                }
+                changed.add(p.owner.userId);
+            }
+        }
+    }
+
+    /** Point-in-time copy of a user's valuation; empty for users without positions. */
+    public Snapshot snapshot(long userId) {
+        Valuation v = valuation(userId);
+        synchronized (v) {
+            List<PositionView> positions = new ArrayList<>(v.positions.size());
+            for (Position p : v.positions.values()) {
+                positions.add(new PositionView(p.asset, p.quantity, p.avgBuyPrice,
+                    p.totalInvested, p.price, p.value));
+            }
+            return new Snapshot(v.marketValue, v.totalInvested, v.realizedPnl, v.winning, positions);
+        }
+    }
+
+    /** Current market value of a user's open positions; zero without any. */
+    public BigDecimal marketValue(long userId) {
+        Valuation v = byUser.get(userId);
+        if (v == null) return BigDecimal.ZERO;
+        synchronized (v) {
+            return v.marketValue;
+        }
+    }
+
+    /** Hand every user whose market value changed since the last call to {@code sink}. */
+    public void drainChanged(Consumer<Long> sink) {
+        for (Iterator<Long> it = changed.iterator(); it.hasNext(); ) {
+            Long userId = it.next();
+            it.remove();
+            sink.accept(userId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.portfolio.flush-interval-ms:5000}",
+               initialDelayString = "${app.portfolio.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Timestamp updatedAt = new Timestamp(System.currentTimeMillis());
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<Long, Valuation> e : byUser.entrySet()) {
+            Valuation v = e.getValue();
+            synchronized (v) {
+                if (!v.dirty) continue;
+                v.dirty = false;
+                rows.add(new Object[] {
+                    v.totalInvested.setScale(4, RoundingMode.HALF_UP),
+                    v.marketValue.setScale(4, RoundingMode.HALF_UP),
+                    updatedAt,
+                    e.getKey()
+                });
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            long start = System.nanoTime();
+            for (int i = 0; i < rows.size(); i += batchSize) {
+                jdbc.batchUpdate(UPDATE_SQL, rows.subList(i, Math.min(i + batchSize, rows.size())));
+            }
+            log.debug("Flushed {} portfolio valuations in {} ms",
+                rows.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Final portfolio flush failed: {}", e.getMessage());
+        }
+    }
+
+    private Valuation valuation(long userId) {
+        return byUser.computeIfAbsent(userId, Valuation::new);
+    }
+
+    private Set<Position> holdersOf(long assetId) {
+        return holders.computeIfAbsent(assetId, k -> ConcurrentHashMap.newKeySet());
+    }
+
+    public record Snapshot(BigDecimal marketValue, BigDecimal totalInvested, BigDecimal realizedPnl,
+                           int winningPositions, List<PositionView> positions) {}
+
+    public record PositionView(Asset asset, BigDecimal quantity, BigDecimal avgBuyPrice,
+                               BigDecimal totalInvested, BigDecimal price, BigDecimal value) {}
+
+    // ---- State (guarded by the owning Valuation's monitor) ------------------
+
+    private static final class Valuation {
+        final long                userId;
+        final Map<Long, Position> positions = new LinkedHashMap<>();
+        BigDecimal marketValue   = BigDecimal.ZERO;
+        BigDecimal totalInvested = BigDecimal.ZERO;
+        BigDecimal realizedPnl   = BigDecimal.ZERO;
+        int        winning       = 0;
+        boolean    dirty         = false;
+
+        Valuation(long userId) {
+            this.userId = userId;
+        }
+
+        void add(Position p) {
+            marketValue   = marketValue.add(p.value);
+            totalInvested = totalInvested.add(p.totalInvested);
+            if (p.winning()) winning++;
+        }
+
+        void subtract(Position p) {
+            marketValue   = marketValue.subtract(p.value);
+            totalInvested = totalInvested.subtract(p.totalInvested);
+            if (p.winning()) winning--;
+            p.closed = true;
+        }
+
+        void remark(Position p, BigDecimal price) {
+            boolean wasWinning = p.winning();
+            BigDecimal value = p.quantity.multiply(price);
+            marketValue = marketValue.add(value.subtract(p.value));
+            p.price = price;
+            p.value = value;
+            if (wasWinning != p.winning()) winning += wasWinning ? -1 : 1;
+            dirty = true;
+        }
+    }
+
+    private static final class Position {
+        final Valuation  owner;
+        final Asset      asset;
+        final BigDecimal quantity;
+        final BigDecimal avgBuyPrice;
+        final BigDecimal totalInvested;
+        BigDecimal price;
+        BigDecimal value;
+        boolean    closed;
+
+        Position(Valuation owner, Asset asset, BigDecimal quantity, BigDecimal avgBuyPrice,
+                 BigDecimal totalInvested, BigDecimal price) {
+            this.owner         = owner;
+            this.asset         = asset;
+            this.quantity      = quantity;
+            this.avgBuyPrice   = avgBuyPrice;
+            this.totalInvested = totalInvested;
+            this.price         = price;
+            this.value         = quantity.multiply(price);
+        }
+
+        boolean winning() {
+            return price.compareTo(avgBuyPrice) > 0;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.investsimulator.service;
+
+import com.investsimulator.model.Asset;
+import com.investsimulator.repository.AssetRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Authoritative in-memory price book.
+ *
+ * Quotes live in primitive columns indexed directly by asset id, so a price
+ * lookup is an array read instead of a database round-trip. Every simulation
+ * tick publishes a new immutable {@link Quotes} generation; readers grab the
+ * current generation once and never observe a half-applied tick.
+ *
+ * The database copy in asset_quotes.current_price is written behind by
+ * {@link PriceBookWriter} on its own schedule.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PriceBook {
+
+    private final AssetRepository assetRepo;
+
+    private volatile Quotes quotes = Quotes.EMPTY;
+
+    @PostConstruct
+    public void load() {
+        List<Asset> assets = assetRepo.findAll();
+        synchronized (this) {
+            quotes = Quotes.EMPTY.with(assets);
+        }
+        log.info("Price book loaded with {} assets ({} active)",
+            assets.size(), quotes.activeIds.length);
+    }
+
+    /**
+     * Advance the book by one tick. The step fills copies of the current
+     * price columns; the result is published atomically once it returns.
+     */
+    public synchronized PriceTickEvent advance(Step step) {
+        Quotes current = quotes;
+        double[] price     = current.price.clone();
+        double[] changePct = current.changePct.clone();
+        step.apply(current, price, changePct);
+        quotes = current.next(price, changePct, System.currentTimeMillis());
+        return new PriceTickEvent(current, quotes);
+    }
+
+    /**
+     * Add or refresh an asset's reference data (after admin add / toggle).
+     * A known asset keeps its live price; a new one starts from the entity.
+     */
+    public synchronized void register(Asset asset) {
+        quotes = quotes.with(List.of(asset));
+    }
+
+    public Quotes quotes() {
+        return quotes;
+    }
+
+    public boolean contains(long assetId) {
+        return quotes.contains(assetId);
+    }
+
+    /** Current price, or null when the asset is not in the book. */
+    public BigDecimal getPrice(long assetId) {
+        Quotes q = quotes;
+        return q.contains(assetId) ? toPrice(q.price[(int) assetId]) : null;
+    }
+
+    /** Snapshot of all active prices, ordered by asset id. */
+    public Map<Long, BigDecimal> activePrices() {
+        Quotes q = quotes;
+        Map<Long, BigDecimal> prices = new LinkedHashMap<>(q.activeIds.length * 2);
+        for (int id : q.activeIds) {
+            prices.put((long) id, toPrice(q.price[id]));
+        }
+        return prices;
+    }
+
+    static BigDecimal toPrice(double price) {
+        return BigDecimal.valueOf(price).setScale(6, RoundingMode.HALF_UP);
+    }
+
+    static BigDecimal toChangePct(double changePct) {
+        return BigDecimal.valueOf(changePct).setScale(4, RoundingMode.HALF_UP);
+    }
+
+    @FunctionalInterface
+    public interface Step {
+        void apply(Quotes current, double[] nextPrice, double[] nextChangePct);
+    }
+
+    // ============================================================
+    // Quotes — one immutable generation of the book
+    // ============================================================
+    public static final class Quotes {
+
+        static final Quotes EMPTY = new Quotes(0, 0L, new double[0], new double[0],
+            new double[0], new boolean[0], new boolean[0], new String[0], new int[0]);
+
+        /** Monotonic tick counter; 0 until the first simulation step. */
+        public final long      tick;
+        /** Epoch millis at which this generation was published. */
+        public final long      timestamp;
+        /** Columns below are indexed by asset id; NaN price = unknown id. */
+        public final double[]  price;
+        public final double[]  changePct;
+        public final double[]  basePrice;
+        public final boolean[] crypto;
+        public final boolean[] active;
+        public final String[]  symbol;
+        /** Ids of active assets in ascending order. */
+        public final int[]     activeIds;
+
+        private Quotes(long tick, long timestamp, double[] price, double[] changePct,
+                       double[] basePrice, boolean[] crypto, boolean[] active, String[] symbol,
+                       int[] activeIds) {
+            this.tick      = tick;
+            this.timestamp = timestamp;
+            this.price     = price;
+            this.changePct = changePct;
+            this.basePrice = basePrice;
+            this.crypto    = crypto;
+            this.active    = active;
+            this.symbol    = symbol;
+            this.activeIds = activeIds;
+        }
+
+        public boolean contains(long assetId) {
+            return assetId >= 0 && assetId < price.length && !Double.isNaN(price[(int) assetId]);
+        }
+
+        Quotes next(double[] nextPrice, double[] nextChangePct, long now) {
+            return new Quotes(tick + 1, now, nextPrice, nextChangePct,
+                basePrice, crypto, active, symbol, activeIds);
+        }
+
+        Quotes with(List<Asset> assets) {
+            int size = price.length;
+            for (Asset a : assets) size = Math.max(size, Math.toIntExact(a.getId()) + 1);
+
+            double[]  p  = grow(price, size);
+            double[]  c  = Arrays.copyOf(changePct, size);
+            double[]  b  = Arrays.copyOf(basePrice, size);
+            boolean[] cr = Arrays.copyOf(crypto, size);
+            boolean[] ac = Arrays.copyOf(active, size);
+            String[]  sy = Arrays.copyOf(symbol, size);
+
+            for (Asset a : assets) {
+                int id = a.getId().intValue();
+                if (Double.isNaN(p[id])) {
+                    p[id] = a.getCurrentPrice().doubleValue();
+                    c[id] = a.getPriceChangePct() != null ? a.getPriceChangePct().doubleValue() : 0.0;
+                }
+                b[id]  = a.getBasePrice().doubleValue();
+                cr[id] = a.getType() == Asset.AssetType.CRYPTO;
+                ac[id] = Boolean.TRUE.equals(a.getIsActive());
+                sy[id] = a.getSymbol();
+            }
+
+            int n = 0;
+            for (boolean on : ac) if (on) n++;
+            int[] ids = new int[n];
+            for (int i = 0, j = 0; i < ac.length; i++) if (ac[i]) ids[j++] = i;
+
+            return new Quotes(tick, timestamp, p, c, b, cr, ac, sy, ids);
+        }
+
+        private static double[] grow(double[] src, int size) {
+            double[] dst = Arrays.copyOf(src, size);
+            Arrays.fill(dst, src.length, size, Double.NaN);
+            return dst;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.investsimulator.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind flusher for the {@link PriceBook}.
+ *
+ * Persists only the rows whose price moved since the last flush into the
+ * narrow asset_quotes rows; the assets metadata rows are never rewritten by
+ * a tick. Runs on its own schedule so the simulation tick never waits on the
+ * database or holds asset row locks.
+ *
+ * Rows go out in chunks of {@code app.simulation.price-flush-batch-size},
+ * written per {@code app.simulation.price-flush-strategy}:
+ * <ul>
+ *   <li>{@code BATCH} — a JDBC batch of single-row UPDATEs: one statement
+ *       execution per row on the server.</li>
+ *   <li>{@code UPSERT} — one multi-row {@code INSERT ... ON DUPLICATE KEY
+ *       UPDATE} per chunk; also creates a missing quote row. Reads the new
+ *       values through a row alias ({@code AS v}), so MySQL 8.0.19+.</li>
+ *   <li>{@code JOIN} — one {@code UPDATE ... JOIN (VALUES ROW(...))} per
+ *       chunk (MySQL 8.0.19+).</li>
+ * </ul>
+ * Only {@code BATCH} runs on MySQL before 8.0.19. Compare them on your
+ * server with {@code PriceFlushBenchmark}.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PriceBookWriter {
+
+    public enum Strategy { BATCH, UPSERT, JOIN }
+
+    /** Placeholders per statement are capped at 65535 by the protocol; 4 per row. */
+    static final int MAX_ROWS_PER_STATEMENT = 65_535 / 4;
+
+    private static final String UPDATE_SQL =
+        "UPDATE asset_quotes SET current_price = ?, price_change_pct = ?, updated_at = ? WHERE asset_id = ?";
+
+    private final PriceBook     priceBook;
+    private final JdbcTemplate  jdbc;
+    private final MeterRegistry meters;
+
+    @Value("${app.simulation.price-flush-batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.simulation.price-flush-strategy:UPSERT}")
+    private Strategy strategy;
+
+    private String fullChunkSql;
+    private Timer  flushTimer;
+
+    private long     lastFlushedTick = 0;
+    private double[] lastFlushed     = new double[0];
+
+    @PostConstruct
+    void init() {
+        if (strategy != Strategy.BATCH && batchSize > MAX_ROWS_PER_STATEMENT) {
+            throw new IllegalStateException("app.simulation.price-flush-batch-size must be at most "
+                + MAX_ROWS_PER_STATEMENT + " with the " + strategy + " strategy");
+        }
+        fullChunkSql = multiRowSql(strategy, batchSize);
+        flushTimer   = Timer.builder("price.flush")
+            .description("Writing one flush of moved quotes")
+            .tag("strategy", strategy.name().toLowerCase())
+            .register(meters);
+    }
+
+    @Scheduled(fixedDelayString = "${app.simulation.price-flush-interval-ms:5000}",
+               initialDelayString = "${app.simulation.price-flush-interval-ms:5000}")
+    public synchronized void flush() {
+        PriceBook.Quotes q = priceBook.quotes();
+        if (q.tick == lastFlushedTick) return;
+
+        if (lastFlushed.length < q.price.length) {
+            int from = lastFlushed.length;
+            lastFlushed = Arrays.copyOf(lastFlushed, q.price.length);
+            Arrays.fill(lastFlushed, from, lastFlushed.length, Double.NaN);
+        }
+
+        Timestamp updatedAt = new Timestamp(q.timestamp);
+        List<Object[]> rows = new ArrayList<>();
+        for (int id : q.activeIds) {
+            if (q.price[id] != lastFlushed[id]) {
+                rows.add(new Object[] {
+                    PriceBook.toPrice(q.price[id]),
+                    PriceBook.toChangePct(q.changePct[id]),
+                    updatedAt,
+                    id
+                });
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            long start = System.nanoTime();
+            write(rows);
+            for (int id : q.activeIds) {
+                lastFlushed[id] = q.price[id];
+            }
+            long took = System.nanoTime() - start;
+            flushTimer.record(took, TimeUnit.NANOSECONDS);
+            log.debug("Flushed {} prices (tick {}, {}) in {} ms",
+                rows.size(), q.tick, strategy, took / 1_000_000);
+        }
+        lastFlushedTick = q.tick;
+    }
+
+    /** Write {price, change %, updated at, asset id} rows with the configured strategy. */
+    public void write(List<Object[]> rows) {
+        for (int i = 0; i < rows.size(); i += batchSize) {
+            List<Object[]> chunk = rows.subList(i, Math.min(i + batchSize, rows.size()));
+            if (strategy == Strategy.BATCH) {
+                jdbc.batchUpdate(UPDATE_SQL, chunk);
+            } else {
+                String sql = chunk.size() == batchSize ? fullChunkSql : multiRowSql(strategy, chunk.size());
+                jdbc.update(sql, ps -> bindRows(ps, chunk));
+            }
+        }
+    }
+
+    /** Row values in the multi-row statements are (asset_id, current_price, price_change_pct, updated_at). */
+    private static void bindRows(PreparedStatement ps, List<Object[]> chunk) throws SQLException {
+        int p = 1;
+        for (Object[] row : chunk) {
+            ps.setObject(p++, row[3]);
+            ps.setObject(p++, row[0]);
+            ps.setObject(p++, row[1]);
+            ps.setObject(p++, row[2]);
+        }
+    }
+
+    static String multiRowSql(Strategy strategy, int rows) {
+        return switch (strategy) {
+            case BATCH  -> UPDATE_SQL;
+            case UPSERT -> "INSERT INTO asset_quotes (asset_id, current_price, price_change_pct, updated_at) VALUES "
+                + String.join(",", Collections.nCopies(rows, "(?,?,?,?)"))
+                + " AS v ON DUPLICATE KEY UPDATE current_price = v.current_price, "
+                + "price_change_pct = v.price_change_pct, updated_at = v.updated_at";
+            // A VALUES table's columns are named column_0, column_1, ...
+            case JOIN   -> "UPDATE asset_quotes q JOIN (VALUES "
+                + String.join(",", Collections.nCopies(rows, "ROW(?,?,?,?)"))
+                + ") AS v ON q.asset_id = v.column_0 "
+                + "SET q.current_price = v.column_1, q.price_change_pct = v.column_2, q.updated_at = v.column_3";
+        };
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Final price flush failed: {}", e.getMessage());
+        }
+    }
+}
@@ -1,18 +1,27 @@
 package com.investsimulator.service;
 
-import com.investsimulator.model.Asset;
-import com.investsimulator.repository.AssetRepository;
+import com.investsimulator.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Price Simulation Engine using Random Walk algorithm.
@@ -23,67 +32,112 @@ import java.util.*;
  *
  * Prices drift around a mean-reversion model to prevent
  * prices from going to zero or infinity over time.
+ *
+ * Metrics: simulation.tick (step plus all listeners), simulation.tick.lag
+ * (how late the last tick started against the fixed-rate schedule),
+ * simulation.tick.last and simulation.tick.overruns (ticks that took longer
+ * than the interval, which pushes the following ticks late).
+ *
+ * Ticks run on their own platform thread ("price-simulation"), not on the
+ * shared Spring scheduler, so a slow tick cannot hold up the write-behind
+ * flushes and a busy flush cannot delay a tick. This holds in the
+ * virtual-thread mode too, where a CPU-bound tick would otherwise occupy a
+ * carrier thread.
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class PriceSimulationService {
 
-    private final AssetRepository assetRepo;
+    private final PriceBook                 priceBook;
+    private final TickEngine                tickEngine;
+    private final ApplicationEventPublisher events;
+    private final MeterRegistry             meters;
+
+    @Value("${app.simulation.price-update-interval-ms:5000}")
+    private long intervalMs;
+
+    private final AtomicLong lagMs      = new AtomicLong();
+    private final AtomicLong lastTickNs = new AtomicLong();
+    private long   nextDueMs;             // simulation thread only
+    private Timer  tickTimer;
+    private Counter overruns;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void registerMeters() {
+        tickTimer = Timer.builder("simulation.tick")
+            .description("Price tick including downstream listeners")
+            .register(meters);
+        overruns = Counter.builder("simulation.tick.overruns")
+            .description("Ticks that took longer than the tick interval")
+            .register(meters);
+        Gauge.builder("simulation.tick.lag", lagMs, AtomicLong::get)
+            .baseUnit("milliseconds")
+            .description("How late the last tick started against its schedule")
+            .register(meters);
+        Gauge.builder("simulation.tick.last", lastTickNs, ns -> ns.get() / 1e6)
+            .baseUnit("milliseconds")
+            .register(meters);
+        Gauge.builder("simulation.tick.interval", () -> intervalMs)
+            .baseUnit("milliseconds")
+            .register(meters);
+    }
 
-    @Value("${app.simulation.stock-volatility:0.003}")
-    private double stockVolatility;
+    /** Start ticking once the application is up and every listener is in place. */
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "price-simulation");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(this::tick, 0, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("Price simulation ticking every {} ms on a dedicated thread", intervalMs);
+    }
 
-    @Value("${app.simulation.crypto-volatility:0.008}")
-    private double cryptoVolatility;
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
 
-    private final Random random = new Random();
+    private void tick() {
+        try {
+            updateAllPrices();
+        } catch (RuntimeException e) {
+            // An exception escaping scheduleAtFixedRate would cancel every later tick
+            log.error("Price tick failed", e);
+        }
+    }
 
     /**
      * Update all asset prices every 5 seconds.
      * Uses Geometric Brownian Motion (GBM) simplified.
+     *
+     * Works entirely on the in-memory {@link PriceBook}; the database copy
+     * is written behind by {@link PriceBookWriter}. The per-asset maths lives
+     * in {@link TickEngine}, which parallelises large universes. Downstream
+     * consumers (history, candles, streaming) receive a {@link PriceTickEvent}.
      */
-    @Scheduled(fixedRateString = "${app.simulation.price-update-interval-ms:5000}")
-    @Transactional
     public void updateAllPrices() {
-        List<Asset> assets = assetRepo.findAllByIsActiveTrue();
-        if (assets.isEmpty()) return;
-
-        assets.forEach(this::simulatePrice);
-        assetRepo.saveAll(assets);
-
-        log.debug("Updated prices for {} assets at {}", assets.size(), LocalDateTime.now());
-    }
-
-    private void simulatePrice(Asset asset) {
-        double volatility = asset.getType() == Asset.AssetType.CRYPTO
-            ? cryptoVolatility : stockVolatility;
-
-        double currentPrice = asset.getCurrentPrice().doubleValue();
-        double basePrice    = asset.getBasePrice().doubleValue();
-
-        // Mean reversion factor — pulls price back toward base over time
-        double meanReversionStrength = 0.001;
-        double meanReversionForce    = (basePrice - currentPrice) / basePrice * meanReversionStrength;
-
-        // Gaussian random shock
-        double randomShock = random.nextGaussian() * volatility;
-
-        // Combined price change
-        double priceDelta = currentPrice * (randomShock + meanReversionForce);
-
-        // Apply bounds — price can't go below 1% of base or above 500% of base
-        double newPrice = Math.max(
-            Math.min(currentPrice + priceDelta, basePrice * 5.0),
-            basePrice * 0.01
-        );
-
-        // Calculate percentage change from base
-        double changeFromBase = ((newPrice - basePrice) / basePrice) * 100.0;
-
-        asset.setCurrentPrice(BigDecimal.valueOf(newPrice).setScale(6, RoundingMode.HALF_UP));
-        asset.setPriceChangePct(BigDecimal.valueOf(changeFromBase).setScale(4, RoundingMode.HALF_UP));
-        asset.setUpdatedAt(LocalDateTime.now());
+        long now = System.currentTimeMillis();
+        if (nextDueMs == 0) nextDueMs = now;
+        lagMs.set(Math.max(0, now - nextDueMs));
+        nextDueMs += intervalMs;
+
+        long start = System.nanoTime();
+        PriceTickEvent tick = priceBook.advance(tickEngine::step);
+        events.publishEvent(tick);
+
+        long took = System.nanoTime() - start;
+        tickTimer.record(took, TimeUnit.NANOSECONDS);
+        lastTickNs.set(took);
+        if (took > TimeUnit.MILLISECONDS.toNanos(intervalMs)) overruns.increment();
+
+        TickEngine.TickStats stats = tickEngine.lastStats();
+        log.debug("Updated prices for {} assets in {} ms ({} partitions) at {}",
+            stats.assets(), String.format("%.3f", stats.computeMillis()),
+            stats.partitions(), LocalDateTime.now());
     }
 
     /**
@@ -91,18 +145,17 @@ public class PriceSimulationService {
      * Used for REST API response.
      */
     public Map<Long, BigDecimal> getCurrentPrices() {
-        Map<Long, BigDecimal> prices = new LinkedHashMap<>();
-        assetRepo.findAllByIsActiveTrue()
-            .forEach(a -> prices.put(a.getId(), a.getCurrentPrice()));
-        return prices;
+        return priceBook.activePrices();
     }
 
     /**
      * Get current price for a specific asset.
      */
     public BigDecimal getPriceForAsset(Long assetId) {
-        return assetRepo.findById(assetId)
-            .map(Asset::getCurrentPrice)
-            .orElseThrow(() -> new RuntimeException("Asset not found: " + assetId));
+        BigDecimal price = priceBook.getPrice(assetId);
+        if (price == null) {
+            throw new ResourceNotFoundException("Asset not found: " + assetId);
+        }
+        return price;
     }
 }
@@ -0,0 +1,206 @@
+package com.investsimulator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.investsimulator.dto.PriceUpdateDTO;
+import com.investsimulator.exception.BusinessException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent price stream.
+ *
+ * After every tick only the assets whose price moved are published, as a
+ * JSON array of {@link PriceUpdateDTO}. Each update is serialised once per
+ * tick; the payload for a given subscription (all assets, or one filter set)
+ * is assembled once and the same byte[] is written to every connection that
+ * shares it. Connections are spread over a few sender lanes so one slow
+ * client cannot stall the rest.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PriceStreamService {
+
+    private final PriceBook    priceBook;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${app.stream.max-assets:500}")
+    private int maxAssets;
+
+    @Value("${app.stream.sender-lanes:4}")
+    private int laneCount;
+
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger nextLane = new AtomicInteger();
+
+    private ExecutorService   encoder;
+    private ExecutorService[] lanes;
+
+    @PostConstruct
+    void start() {
+        encoder = Executors.newSingleThreadExecutor(r -> daemon(r, "price-stream-encoder"));
+        lanes   = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String name = "price-stream-" + i;
+            lanes[i] = Executors.newSingleThreadExecutor(r -> daemon(r, name));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        encoder.shutdownNow();
+        for (ExecutorService lane : lanes) lane.shutdownNow();
+        subscribers.keySet().forEach(SseEmitter::complete);
+    }
+
+    /**
+     * Open a stream. {@code assetIds} empty or null means every asset; at most
+     * {@code app.stream.max-assets} ids. The first event is a full snapshot of
+     * the subscription.
+     */
+    public SseEmitter subscribe(Collection<Long> assetIds) {
+        if (assetIds != null && assetIds.size() > maxAssets) {
+            throw new BusinessException("At most " + maxAssets + " assets per price stream");
+        }
+        if (subscribers.size() >= maxSubscribers) {
+            throw new BusinessException("Too many open price streams, try again later");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber sub = new Subscriber(emitter, filter(assetIds),
+            Math.floorMod(nextLane.getAndIncrement(), lanes.length));
+
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        subscribers.put(emitter, sub);
+
+        PriceBook.Quotes q = priceBook.quotes();
+        encoder.execute(() -> {
+            Batch snapshot = new Batch(q, null);
+            lanes[sub.lane].execute(() -> send(sub, q.tick, snapshot.payloadFor(sub)));
+        });
+        return emitter;
+    }
+
+    @EventListener
+    public void onTick(PriceTickEvent tick) {
+        if (subscribers.isEmpty()) return;
+        encoder.execute(() -> {
+            Batch batch = new Batch(tick.current(), tick);
+            List<List<Subscriber>> byLane = new ArrayList<>(lanes.length);
+            for (int i = 0; i < lanes.length; i++) byLane.add(new ArrayList<>());
+            subscribers.values().forEach(s -> byLane.get(s.lane).add(s));
+
+            for (int i = 0; i < lanes.length; i++) {
+                List<Subscriber> laneSubs = byLane.get(i);
+                if (laneSubs.isEmpty()) continue;
+                lanes[i].execute(() -> {
+                    for (Subscriber s : laneSubs) send(s, tick.current().tick, batch.payloadFor(s));
+                });
+            }
+        });
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void send(Subscriber sub, long tick, byte[] payload) {
+        if (payload == null) return;
+        try {
+            sub.emitter.send(SseEmitter.event()
+                .id(Long.toString(tick))
+                .name("prices")
+                .data(payload, MediaType.APPLICATION_JSON));
+        } catch (Exception e) {
+            subscribers.remove(sub.emitter);
+            sub.emitter.completeWithError(e);
+        }
+    }
+
+    /** Sorted, distinct ids; sized by the request, not by the largest id in it. */
+    private static int[] filter(Collection<Long> assetIds) {
+        if (assetIds == null || assetIds.isEmpty()) return null;
+        return assetIds.stream()
+            .filter(id -> id != null && id >= 0 && id <= Integer.MAX_VALUE)
+            .mapToInt(Long::intValue)
+            .sorted().distinct().toArray();
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    private record Subscriber(SseEmitter emitter, int[] assets, int lane) {
+        String key() {
+            return assets == null ? "*" : Arrays.toString(assets);
+        }
+    }
+
+    // ============================================================
+    // Batch — one tick's updates, serialised once and shared
+    // ============================================================
+    private final class Batch {
+
+        private final String[] fragments;     // JSON per moved asset, indexed by id
+        private final byte[]   all;
+        private final Map<String, byte[]> filtered = new ConcurrentHashMap<>();
+
+        /** {@code tick} null = full snapshot of every active asset. */
+        Batch(PriceBook.Quotes q, PriceTickEvent tick) {
+            fragments = new String[q.price.length];
+            StringJoiner joined = new StringJoiner(",", "[", "]");
+            for (int id : q.activeIds) {
+                if (tick != null && !tick.moved(id)) continue;
+                fragments[id] = encode(new PriceUpdateDTO((long) id, q.symbol[id],
+                    PriceBook.toPrice(q.price[id]), PriceBook.toChangePct(q.changePct[id]), q.timestamp));
+                joined.add(fragments[id]);
+            }
+            all = joined.length() > 2 ? joined.toString().getBytes(StandardCharsets.UTF_8) : null;
+        }
+
+        byte[] payloadFor(Subscriber sub) {
+            if (sub.assets == null || all == null) return all;
+            byte[] payload = filtered.computeIfAbsent(sub.key(), k -> {
+                StringJoiner joined = new StringJoiner(",", "[", "]");
+                for (int id : sub.assets) {
+                    if (id < fragments.length && fragments[id] != null) joined.add(fragments[id]);
+                }
+                return joined.length() > 2 ? joined.toString().getBytes(StandardCharsets.UTF_8) : new byte[0];
+            });
+            return payload.length == 0 ? null : payload;
+        }
+
+        private String encode(PriceUpdateDTO update) {
+            try {
+                return objectMapper.writeValueAsString(update);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.investsimulator.service;
+
+/**
+ * Published by {@link PriceSimulationService} after every tick.
+ *
+ * Carries the book generation before and after the tick so listeners can
+ * work out which assets moved without touching the database. Listeners run
+ * on the simulation thread and must hand anything slow to their own
+ * threads.
+ */
+public record PriceTickEvent(PriceBook.Quotes previous, PriceBook.Quotes current) {
+
+    /** True when the asset's price differs between the two generations. */
+    public boolean moved(int assetId) {
+        return assetId >= previous.price.length
+            || previous.price[assetId] != current.price[assetId];
+    }
+}
@@ -0,0 +1,374 @@
+package com.investsimulator.service;
+
+import com.investsimulator.model.Asset;
+import com.investsimulator.repository.AssetRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Seedable market scenario behind the {@link TickEngine}'s shocks.
+ *
+ * Correlation — one factor per sector, plus one for assets without a
+ * sector. Each tick draws k independent normals and correlates them with
+ * the Cholesky factor L of the k x k sector correlation matrix (1 on the
+ * diagonal, {@code app.scenario.cross-sector-correlation} off it, with
+ * per-pair overrides), computed once per catalogue change. An asset's
+ * standardised shock is then
+ *
+ * <pre>
+ *   z = sqrt(rho) * f[sector] + sqrt(1 - rho) * e      rho = app.scenario.sector-correlation
+ * </pre>
+ *
+ * so two assets in one sector correlate at rho and across sectors at
+ * rho * corr(f). That is O(k^2) per tick plus O(1) per asset, on buffers
+ * reused from tick to tick; an asset-level Cholesky would be O(n^2).
+ *
+ * Regimes — a Markov chain over {@link Regime}: each tick the current
+ * regime ends with probability 1 / its mean length; CALM moves to CRASH
+ * with probability {@code app.scenario.crash-share}, else to RALLY, and
+ * both return to CALM. The regime scales volatility and adds a drift.
+ *
+ * Jumps — each factor, and each asset, jumps with a small per-tick
+ * probability (raised in a crash) by a normal return.
+ *
+ * Every draw comes from one SplittableRandom seeded with
+ * {@code app.scenario.seed} (0 = a fresh seed, logged at start-up), taken
+ * in a fixed order on the simulation thread; the tick engine's chunk
+ * generators are split from it too. The same seed, catalogue and start
+ * prices replay the same price paths.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ScenarioEngine {
+
+    /** Volatility multiplier, drift in per-tick sigmas, mean length in ticks, jump multiplier. */
+    public enum Regime {
+        CALM (1.0,  0.00, 720, 1.0),
+        RALLY(1.5,  0.05, 120, 1.0),
+        CRASH(3.0, -0.15,  60, 4.0);
+
+        final double volMultiplier;
+        final double driftSigmas;
+        final int    meanTicks;
+        final double jumpMultiplier;
+
+        Regime(double volMultiplier, double driftSigmas, int meanTicks, double jumpMultiplier) {
+            this.volMultiplier  = volMultiplier;
+            this.driftSigmas    = driftSigmas;
+            this.meanTicks      = meanTicks;
+            this.jumpMultiplier = jumpMultiplier;
+        }
+    }
+
+    private final AssetRepository assetRepo;
+    private final MeterRegistry   meters;
+
+    @Value("${app.scenario.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.scenario.seed:0}")
+    private long configuredSeed;
+
+    @Value("${app.scenario.sector-correlation:0.4}")
+    private double sectorCorrelation;
+
+    @Value("${app.scenario.cross-sector-correlation:0.3}")
+    private double crossSectorCorrelation;
+
+    /** Comma-separated {@code SectorA/SectorB=0.7} overrides of the cross-sector correlation. */
+    @Value("${app.scenario.sector-pairs:}")
+    private String sectorPairs;
+
+    @Value("${app.scenario.regime-switching:true}")
+    private boolean regimeSwitching;
+
+    @Value("${app.scenario.initial-regime:CALM}")
+    private Regime initialRegime;
+
+    @Value("${app.scenario.crash-share:0.4}")
+    private double crashShare;
+
+    @Value("${app.scenario.jump-probability:0.0002}")
+    private double jumpProbability;
+
+    @Value("${app.scenario.sector-jump-probability:0.0005}")
+    private double sectorJumpProbability;
+
+    @Value("${app.scenario.jump-mean:0.0}")
+    private double jumpMean;
+
+    @Value("${app.scenario.jump-stddev:0.04}")
+    private double jumpStddev;
+
+    private final Frame frame = new Frame();
+
+    // Guarded by this; read by the simulation thread inside next()
+    private Factors          factors = Factors.EMPTY;
+    private Map<String, Double> pairs = Map.of();
+    private SplittableRandom rnd;
+    private long             seed;
+    private Regime           regime;
+    private long             regimeTicks;
+    private double[]         z = new double[0];
+
+    @PostConstruct
+    public void load() {
+        if (sectorCorrelation < 0 || sectorCorrelation > 1) {
+            throw new IllegalStateException("app.scenario.sector-correlation must be within [0, 1]");
+        }
+        if (crossSectorCorrelation < 0 || crossSectorCorrelation >= 1) {
+            throw new IllegalStateException("app.scenario.cross-sector-correlation must be within [0, 1)");
+        }
+        pairs = parsePairs(sectorPairs);
+        List<Asset> assets = assetRepo.findAll();
+        synchronized (this) {
+            factors = Factors.EMPTY.with(assets, crossSectorCorrelation, pairs);
+            reseed(configuredSeed);
+        }
+        Gauge.builder("scenario.regime", this, e -> e.regime().ordinal())
+            .description("Current market regime (0 = CALM, 1 = RALLY, 2 = CRASH)")
+            .register(meters);
+        log.info("Market scenario {}: seed {}, {} sector factors, regime {}",
+            enabled ? "enabled" : "disabled (independent shocks)", seed, factors.k, regime);
+    }
+
+    /** Add or refresh an asset's sector (after admin add / toggle). */
+    public synchronized void register(Asset asset) {
+        factors = factors.with(List.of(asset), crossSectorCorrelation, pairs);
+    }
+
+    /**
+     * Restart the shock stream from {@code seed} (0 = a fresh one) in the
+     * initial regime. Prices are not reset; the sequence replays from the
+     * current prices.
+     */
+    public synchronized long reseed(long seed) {
+        this.seed   = seed != 0 ? seed : new SplittableRandom().nextLong();
+        rnd         = new SplittableRandom(this.seed);
+        regime      = initialRegime;
+        regimeTicks = 0;
+        return this.seed;
+    }
+
+    /** Force a regime; it then runs its course as if it had switched naturally. */
+    public synchronized void setRegime(Regime regime) {
+        this.regime = regime;
+        regimeTicks = 0;
+    }
+
+    public synchronized Regime regime()      { return regime; }
+    public synchronized long   regimeTicks() { return regimeTicks; }
+    public synchronized long   seed()        { return seed; }
+    public synchronized int    factorCount() { return factors.k; }
+    public boolean isEnabled()               { return enabled; }
+
+    /**
+     * Advance one tick: switch regime, draw the correlated factor returns
+     * and factor jumps. The returned frame is reused by every tick; it is
+     * valid until the next call.
+     */
+    synchronized Frame next() {
+        Frame f = frame;
+        if (!enabled) {
+            f.reset(Factors.EMPTY);
+            return f;
+        }
+
+        if (regimeSwitching && rnd.nextDouble() * regime.meanTicks < 1) {
+            regime = regime != Regime.CALM ? Regime.CALM
+                   : rnd.nextDouble() < crashShare ? Regime.CRASH : Regime.RALLY;
+            regimeTicks = 0;
+        }
+        regimeTicks++;
+
+        Factors c = factors;
+        int k = c.k;
+        if (f.factor.length != k) {
+            f.factor     = new double[k];
+            f.factorJump = new double[k];
+            z            = new double[k];
+        }
+        f.sectorOf       = c.sectorOf;
+        f.other          = k - 1;
+        f.loading        = Math.sqrt(sectorCorrelation);
+        f.idiosyncratic  = Math.sqrt(1 - sectorCorrelation);
+        f.volMultiplier  = regime.volMultiplier;
+        f.drift          = regime.driftSigmas;
+        f.jumpProbability = jumpProbability * regime.jumpMultiplier;
+        f.jumpMean       = jumpMean;
+        f.jumpStddev     = jumpStddev;
+
+        // f = L z, L lower-triangular, row-major
+        double[] l = c.cholesky;
+        for (int i = 0; i < k; i++) z[i] = rnd.nextGaussian();
+        for (int i = 0; i < k; i++) {
+            double sum = 0;
+            int row = i * k;
+            for (int j = 0; j <= i; j++) sum += l[row + j] * z[j];
+            f.factor[i] = sum;
+        }
+
+        double sectorJump = sectorJumpProbability * regime.jumpMultiplier;
+        for (int i = 0; i < k; i++) {
+            f.factorJump[i] = rnd.nextDouble() < sectorJump ? jumpMean + jumpStddev * rnd.nextGaussian() : 0;
+        }
+        return f;
+    }
+
+    /** A generator for this tick's per-asset draws, taken after {@link #next}. */
+    synchronized SplittableRandom split() {
+        return rnd.split();
+    }
+
+    private static Map<String, Double> parsePairs(String spec) {
+        Map<String, Double> out = new HashMap<>();
+        if (spec == null || spec.isBlank()) return out;
+        for (String entry : spec.split(",")) {
+            String[] kv    = entry.split("=");
+            String[] names = kv[0].split("/");
+            if (kv.length != 2 || names.length != 2) {
+                throw new IllegalStateException("app.scenario.sector-pairs: expected SectorA/SectorB=rho, got " + entry);
+            }
+            double rho = Double.parseDouble(kv[1].trim());
+            if (rho <= -1 || rho >= 1) throw new IllegalStateException("app.scenario.sector-pairs: rho must be within (-1, 1)");
+            out.put(Factors.pairKey(names[0], names[1]), rho);
+        }
+        return out;
+    }
+
+    // ============================================================
+    /**
+     * One tick's scenario, read by the tick engine's chunks. Draws nothing
+     * itself except through the generator it is handed.
+     */
+    static final class Frame {
+        int[]    sectorOf = new int[0];
+        int      other;
+        double[] factor     = new double[1];
+        double[] factorJump = new double[1];
+        double   loading, idiosyncratic = 1, volMultiplier = 1, drift;
+        double   jumpProbability, jumpMean, jumpStddev;
+
+        /** Independent shocks, as without a scenario. */
+        void reset(Factors c) {
+            sectorOf = c.sectorOf;
+            other = 0;
+            factor[0] = factorJump[0] = 0;
+            loading = drift = jumpProbability = 0;
+            idiosyncratic = volMultiplier = 1;
+        }
+
+        /** This tick's return for asset {@code id}, before mean reversion. */
+        double shock(int id, double volatility, SplittableRandom rnd) {
+            int s = id < sectorOf.length ? sectorOf[id] : other;
+            double vol = volatility * volMultiplier;
+            double r = vol * (loading * factor[s] + idiosyncratic * rnd.nextGaussian() + drift) + factorJump[s];
+            if (jumpProbability > 0 && rnd.nextDouble() < jumpProbability) {
+                r += jumpMean + jumpStddev * rnd.nextGaussian();
+            }
+            return r;
+        }
+    }
+
+    // ============================================================
+    /** Immutable sector map and Cholesky factor; replaced on change. */
+    static final class Factors {
+
+        static final Factors EMPTY = new Factors(new int[0], new String[0], Map.of(), 1, new double[] {1});
+
+        final int[]                sectorOf;      // the last factor when the asset has no sector
+        final String[]             sectors;
+        final Map<String, Integer> sectorIndex;   // lower-cased sector -> index
+        final int                  k;             // sectors + 1
+        final double[]             cholesky;      // k x k, row-major, lower-triangular
+
+        private Factors(int[] sectorOf, String[] sectors, Map<String, Integer> sectorIndex, int k, double[] cholesky) {
+            this.sectorOf    = sectorOf;
+            this.sectors     = sectors;
+            this.sectorIndex = sectorIndex;
+            this.k           = k;
+            this.cholesky    = cholesky;
+        }
+
+        Factors with(List<Asset> assets, double cross, Map<String, Double> pairs) {
+            int size = sectorOf.length;
+            for (Asset a : assets) size = Math.max(size, Math.toIntExact(a.getId()) + 1);
+
+            Map<String, Integer> index = new HashMap<>(sectorIndex);
+            List<String> names = new ArrayList<>(Arrays.asList(sectors));
+            int[] of = Arrays.copyOf(sectorOf, size);
+            Arrays.fill(of, sectorOf.length, size, -1);
+            for (int id = 0; id < sectorOf.length; id++) if (of[id] == sectors.length) of[id] = -1;
+            for (Asset a : assets) {
+                String s = a.getSector();
+                of[a.getId().intValue()] = s == null || s.isBlank() ? -1 : index.computeIfAbsent(key(s), x -> {
+                    names.add(s.trim());
+                    return names.size() - 1;
+                });
+            }
+
+            int other = names.size();
+            for (int id = 0; id < size; id++) if (of[id] < 0) of[id] = other;
+            double[] chol = names.size() == sectors.length ? cholesky : factor(names, cross, pairs);
+            return new Factors(of, names.toArray(String[]::new), index, other + 1, chol);
+        }
+
+        /** Cholesky of the factor correlation matrix; falls back to no overrides if they are inconsistent. */
+        private static double[] factor(List<String> names, double cross, Map<String, Double> pairs) {
+            int k = names.size() + 1;
+            double[] l = cholesky(correlation(names, k, cross, pairs), k);
+            if (l == null && !pairs.isEmpty()) {
+                log.warn("app.scenario.sector-pairs is not a valid correlation matrix; ignoring the overrides");
+                l = cholesky(correlation(names, k, cross, Map.of()), k);
+            }
+            return l;
+        }
+
+        private static double[] correlation(List<String> names, int k, double cross, Map<String, Double> pairs) {
+            double[] a = new double[k * k];
+            for (int i = 0; i < k; i++) {
+                for (int j = 0; j < k; j++) {
+                    if (i == j) { a[i * k + j] = 1; continue; }
+                    Double rho = i < names.size() && j < names.size() ? pairs.get(pairKey(names.get(i), names.get(j))) : null;
+                    a[i * k + j] = rho != null ? rho : cross;
+                }
+            }
+            return a;
+        }
+
+        /** Cholesky–Banachiewicz; null when {@code a} is not positive definite. */
+        static double[] cholesky(double[] a, int k) {
+            double[] l = new double[k * k];
+            for (int i = 0; i < k; i++) {
+                for (int j = 0; j <= i; j++) {
+                    double sum = a[i * k + j];
+                    for (int p = 0; p < j; p++) sum -= l[i * k + p] * l[j * k + p];
+                    if (i == j) {
+                        if (sum <= 1e-12) return null;
+                        l[i * k + i] = Math.sqrt(sum);
+                    } else {
+                        l[i * k + j] = sum / l[j * k + j];
+                    }
+                }
+            }
+            return l;
+        }
+
+        static String key(String sector) {
+            return sector.trim().toLowerCase(Locale.ROOT);
+        }
+
+        static String pairKey(String a, String b) {
+            String x = key(a), y = key(b);
+            return x.compareTo(y) <= 0 ? x + "/" + y : y + "/" + x;
+        }
+    }
+}
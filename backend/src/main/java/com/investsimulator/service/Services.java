@@ -1,9 +1,13 @@
 package com.investsimulator.service;
 
 import com.investsimulator.dto.*;
+import com.investsimulator.exception.BusinessException;
 import com.investsimulator.exception.ResourceNotFoundException;
 import com.investsimulator.model.*;
 import com.investsimulator.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
@@ -11,7 +15,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 // ============================================================
@@ -22,40 +30,38 @@ import java.util.stream.Collectors;
 public class PortfolioService {
 
     private final UserRepository        userRepo;
-    private final HoldingRepository     holdingRepo;
     private final TransactionRepository txRepo;
-    private final PortfolioRepository   portfolioRepo;
+    private final PortfolioValuations   valuations;
+    private final MeterRegistry         meters;
 
+    private Timer portfolioTimer;
+
+    @PostConstruct
+    void init() {
+        portfolioTimer = Timer.builder("portfolio.get").register(meters);
+    }
+
+    /** Cash from the user row; everything else from the maintained valuation. */
     @Transactional(readOnly = true)
     public PortfolioResponse getPortfolio(Long userId) {
+        return portfolioTimer.record(() -> buildPortfolio(userId));
+    }
+
+    private PortfolioResponse buildPortfolio(Long userId) {
         User user = userRepo.findById(userId)
             .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        List<Holding> holdings = holdingRepo.findAllByUserId(userId);
-
-        BigDecimal portfolioValue = holdings.stream()
-            .map(h -> h.getAsset().getCurrentPrice().multiply(h.getQuantity()))
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        PortfolioValuations.Snapshot v = valuations.snapshot(userId);
 
-        BigDecimal totalCost = holdings.stream()
-            .map(Holding::getTotalInvested)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal unrealizedPnl = portfolioValue.subtract(totalCost);
-        BigDecimal unrealizedPct = totalCost.compareTo(BigDecimal.ZERO) > 0
+        BigDecimal portfolioValue = v.marketValue();
+        BigDecimal totalCost      = v.totalInvested();
+        BigDecimal unrealizedPnl  = portfolioValue.subtract(totalCost);
+        BigDecimal unrealizedPct  = totalCost.compareTo(BigDecimal.ZERO) > 0
             ? unrealizedPnl.divide(totalCost, 6, RoundingMode.HALF_UP)
                 .multiply(BigDecimal.valueOf(100))
             : BigDecimal.ZERO;
 
-        BigDecimal realizedPnl = portfolioRepo.findByUserId(userId)
-            .map(Portfolio::getRealizedPnl)
-            .orElse(BigDecimal.ZERO);
-
-        long winningPositions = holdings.stream()
-            .filter(h -> h.getAsset().getCurrentPrice().compareTo(h.getAvgBuyPrice()) > 0)
-            .count();
-
-        List<HoldingDTO> holdingDTOs = holdings.stream()
+        List<HoldingDTO> holdingDTOs = v.positions().stream()
             .map(this::mapHolding)
             .collect(Collectors.toList());
 
@@ -65,40 +71,55 @@ public class PortfolioService {
             totalCost.setScale(4, RoundingMode.HALF_UP),
             unrealizedPnl.setScale(4, RoundingMode.HALF_UP),
             unrealizedPct.setScale(4, RoundingMode.HALF_UP),
-            realizedPnl,
-            holdings.size(),
-            (int) winningPositions,
+            v.realizedPnl(),
+            holdingDTOs.size(),
+            v.winningPositions(),
             holdingDTOs
         );
     }
 
+    /**
+     * One page of history, newest first, continuing after {@code cursor}
+     * (null for the first page). Keyset on (executed_at, id), so every page
+     * is an index range scan regardless of depth, and no COUNT(*) is run.
+     */
     @Transactional(readOnly = true)
-    public List<TransactionDTO> getTransactionHistory(Long userId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size,
-            Sort.by(Sort.Direction.DESC, "executedAt"));
-        return txRepo.findAllByUserIdOrderByExecutedAtDesc(userId, pageable)
-            .stream()
-            .map(this::mapTransaction)
-            .collect(Collectors.toList());
+    public TransactionPageDTO getTransactionHistory(Long userId, String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);   // one extra row tells us there is a next page
+        List<Transaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = txRepo.findLatestByUserId(userId, limit);
+        } else {
+            HistoryCursor c = HistoryCursor.decode(cursor);
+            rows = txRepo.findByUserIdBefore(userId, c.executedAt(), c.id(), limit);
+        }
+
+        String next = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            Transaction last = rows.get(size - 1);
+            next = new HistoryCursor(last.getExecutedAt(), last.getId()).encode();
+        }
+        return new TransactionPageDTO(rows.stream().map(this::mapTransaction).collect(Collectors.toList()), next);
     }
 
-    private HoldingDTO mapHolding(Holding h) {
-        BigDecimal curPrice  = h.getAsset().getCurrentPrice();
-        BigDecimal curValue  = curPrice.multiply(h.getQuantity());
-        BigDecimal costBasis = h.getAvgBuyPrice().multiply(h.getQuantity());
+    private HoldingDTO mapHolding(PortfolioValuations.PositionView h) {
+        BigDecimal curPrice  = h.price();
+        BigDecimal curValue  = h.value();
+        BigDecimal costBasis = h.avgBuyPrice().multiply(h.quantity());
         BigDecimal upnl      = curValue.subtract(costBasis);
         BigDecimal pnlPct    = costBasis.compareTo(BigDecimal.ZERO) > 0
             ? upnl.divide(costBasis, 6, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100))
             : BigDecimal.ZERO;
 
         return new HoldingDTO(
-            h.getAsset().getId(),
-            h.getAsset().getSymbol(),
-            h.getAsset().getName(),
-            h.getAsset().getType().name(),
-            h.getAsset().getSector(),
-            h.getQuantity(),
-            h.getAvgBuyPrice(),
+            h.asset().getId(),
+            h.asset().getSymbol(),
+            h.asset().getName(),
+            h.asset().getType().name(),
+            h.asset().getSector(),
+            h.quantity(),
+            h.avgBuyPrice(),
             curPrice,
             curValue.setScale(4, RoundingMode.HALF_UP),
             costBasis.setScale(4, RoundingMode.HALF_UP),
@@ -107,6 +128,26 @@ public class PortfolioService {
         );
     }
 
+    /** Opaque position in the history: base64url of "executedAt|id". */
+    record HistoryCursor(LocalDateTime executedAt, Long id) {
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((executedAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int bar = raw.indexOf('|');
+                return new HistoryCursor(LocalDateTime.parse(raw.substring(0, bar)),
+                    Long.parseLong(raw.substring(bar + 1)));
+            } catch (RuntimeException e) {
+                throw new BusinessException("Invalid history cursor");
+            }
+        }
+    }
+
     private TransactionDTO mapTransaction(Transaction tx) {
         return new TransactionDTO(
             tx.getId(),
@@ -136,11 +177,14 @@ class WatchlistService {
     private final WatchlistRepository watchlistRepo;
     private final AssetRepository     assetRepo;
     private final UserRepository      userRepo;
+    private final AssetCatalog        assetCatalog;
 
     @Transactional(readOnly = true)
     public List<AssetDTO> getWatchlist(Long userId) {
-        return watchlistRepo.findAllByUserIdOrderByAddedAtDesc(userId).stream()
-            .map(w -> mapAsset(w.getAsset()))
+        return watchlistRepo.findAssetIdsByUserId(userId).stream()
+            .map(assetCatalog::byId)
+            .flatMap(Optional::stream)
+            .map(assetCatalog::toDto)
             .collect(Collectors.toList());
     }
 
@@ -150,15 +194,13 @@ class WatchlistService {
             watchlistRepo.deleteByUserIdAndAssetId(userId, assetId);
             return false; // removed
         } else {
+            if (assetCatalog.byId(assetId).isEmpty()) {
+                throw new ResourceNotFoundException("Asset not found: " + assetId);
+            }
             User  user  = userRepo.findById(userId).orElseThrow();
-            Asset asset = assetRepo.findById(assetId).orElseThrow();
+            Asset asset = assetRepo.getReferenceById(assetId);
             watchlistRepo.save(WatchlistItem.builder().user(user).asset(asset).build());
             return true;  // added
         }
     }
-
-    private AssetDTO mapAsset(Asset a) {
-        return new AssetDTO(a.getId(), a.getSymbol(), a.getName(),
-            a.getType().name(), a.getSector(), a.getCurrentPrice(), a.getPriceChangePct());
-    }
 }
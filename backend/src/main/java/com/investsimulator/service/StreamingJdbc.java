@@ -0,0 +1,36 @@
+package com.investsimulator.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Row-at-a-time reads for result sets too large to buffer: the history
+ * export, the leaderboard load and HISTORY backtest replays.
+ *
+ * The statement is forward-only and read-only with fetch size
+ * Integer.MIN_VALUE, which tells Connector/J to stream rows off the socket
+ * instead of reading the whole result first. The connection stays busy until
+ * the last row has been handled.
+ */
+@Component
+@RequiredArgsConstructor
+public class StreamingJdbc {
+
+    private final JdbcTemplate jdbc;
+
+    /** Run {@code sql} with parameters from {@code binder}, handing each row to {@code rows} as it arrives. */
+    public void streamingQuery(String sql, PreparedStatementSetter binder, RowCallbackHandler rows) {
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);   // Connector/J: stream rows instead of buffering the result
+            binder.setValues(ps);
+            return ps;
+        }, rows);
+    }
+}
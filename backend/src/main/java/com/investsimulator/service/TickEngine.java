@@ -0,0 +1,151 @@
+package com.investsimulator.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Column-oriented tick engine behind {@link PriceSimulationService}.
+ *
+ * Works directly on the {@link PriceBook} double[] columns. Active assets are
+ * cut into fixed-size chunks; each chunk gets its own SplittableRandom split
+ * from the {@link ScenarioEngine}'s seeded stream, so chunks run in parallel
+ * on a dedicated ForkJoinPool without sharing a generator. Chunk boundaries
+ * do not depend on the number of threads, which keeps a seeded run
+ * reproducible on any machine. The scenario supplies each asset's shock.
+ *
+ * Small universes (the default catalogue) stay on the calling thread.
+ */
+@Component
+@RequiredArgsConstructor
+public class TickEngine {
+
+    static final int CHUNK_SIZE = 2048;
+
+    private static final double MEAN_REVERSION_STRENGTH = 0.001;
+    private static final double PRICE_SCALE  = 1_000_000.0;  // DECIMAL(18,6)
+    private static final double CHANGE_SCALE = 10_000.0;     // DECIMAL(8,4)
+
+    @Value("${app.simulation.stock-volatility:0.003}")
+    private double stockVolatility;
+
+    @Value("${app.simulation.crypto-volatility:0.008}")
+    private double cryptoVolatility;
+
+    @Value("${app.simulation.tick-parallelism:0}")
+    private int parallelism;
+
+    @Value("${app.simulation.parallel-threshold:8192}")
+    private int parallelThreshold;
+
+    private final ScenarioEngine scenario;
+
+    private ForkJoinPool pool;
+    private volatile TickStats lastStats = new TickStats(0, 0, 0, 0L);
+
+    @PostConstruct
+    void start() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads);
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Compute the next price for every active asset. Matches
+     * {@link PriceBook.Step} so it can be passed to {@link PriceBook#advance}.
+     */
+    public void step(PriceBook.Quotes current, double[] price, double[] changePct) {
+        long start = System.nanoTime();
+        int[] ids  = current.activeIds;
+        int chunks = (ids.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        ScenarioEngine.Frame frame = scenario.next();
+        SplittableRandom     root  = scenario.split();
+
+        if (chunks <= 1 || ids.length < parallelThreshold) {
+            simulate(current, price, changePct, 0, ids.length, frame, root);
+            chunks = Math.min(chunks, 1);
+        } else {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+            for (int c = 0; c < chunks; c++) {
+                int from = c * CHUNK_SIZE;
+                int to   = Math.min(from + CHUNK_SIZE, ids.length);
+                SplittableRandom rnd = root.split();
+                tasks.add(ForkJoinTask.adapt(() -> simulate(current, price, changePct, from, to, frame, rnd)));
+            }
+            pool.invoke(ForkJoinTask.adapt(() -> { ForkJoinTask.invokeAll(tasks); }));
+        }
+
+        lastStats = new TickStats(current.tick + 1, ids.length, chunks, System.nanoTime() - start);
+    }
+
+    /** Random walk with mean reversion for ids[from, to), shocked by the scenario frame. */
+    private void simulate(PriceBook.Quotes current, double[] price, double[] changePct,
+                          int from, int to, ScenarioEngine.Frame frame, SplittableRandom rnd) {
+        int[]     ids    = current.activeIds;
+        double[]  cur    = current.price;
+        double[]  base   = current.basePrice;
+        boolean[] crypto = current.crypto;
+
+        for (int i = from; i < to; i++) {
+            int    id        = ids[i];
+            double basePrice = base[id];
+            double newPrice  = move(cur[id], basePrice, frame.shock(id, volatility(crypto[id]), rnd));
+
+            // Round to the column scales so memory and database agree
+            price[id]     = roundPrice(newPrice);
+            changePct[id] = Math.rint((newPrice - basePrice) / basePrice * 100.0 * CHANGE_SCALE) / CHANGE_SCALE;
+        }
+    }
+
+    /**
+     * One random-walk step from {@code currentPrice}, unrounded. Shared with
+     * the {@link Backtester}'s seeded replays.
+     */
+    static double walk(double currentPrice, double basePrice, double volatility, double gaussian) {
+        // Gaussian random shock
+        return move(currentPrice, basePrice, gaussian * volatility);
+    }
+
+    /** One step from {@code currentPrice} given this tick's return shock, unrounded. */
+    static double move(double currentPrice, double basePrice, double randomShock) {
+        // Mean reversion factor — pulls price back toward base over time
+        double meanReversionForce = (basePrice - currentPrice) / basePrice * MEAN_REVERSION_STRENGTH;
+
+        // Apply bounds — price can't go below 1% of base or above 500% of base
+        double newPrice = currentPrice + currentPrice * (randomShock + meanReversionForce);
+        return Math.max(Math.min(newPrice, basePrice * 5.0), basePrice * 0.01);
+    }
+
+    /** Rounded to DECIMAL(18,6), as stored. */
+    static double roundPrice(double price) {
+        return Math.rint(price * PRICE_SCALE) / PRICE_SCALE;
+    }
+
+    /** Per-tick volatility for the asset class. */
+    public double volatility(boolean crypto) {
+        return crypto ? cryptoVolatility : stockVolatility;
+    }
+
+    public TickStats lastStats() {
+        return lastStats;
+    }
+
+    /** Per-tick compute report. */
+    public record TickStats(long tick, int assets, int partitions, long computeNanos) {
+        public double computeMillis() {
+            return computeNanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.investsimulator.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only recorder of simulated ticks into price_history.
+ *
+ * The tick thread copies each moved price into a bounded single-producer /
+ * single-consumer ring of primitive columns and returns immediately. A
+ * scheduled flusher drains the ring in JDBC batches; with
+ * rewriteBatchedStatements=true on the MySQL URL each batch is sent as one
+ * multi-row INSERT. When the ring is full new ticks are dropped and counted
+ * rather than blocking the simulation.
+ *
+ * Metrics: history.buffer.size / capacity, history.ticks{result=recorded|dropped|flushed|failed},
+ * history.flush (timer).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TickRecorder {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO price_history (asset_id, price, recorded_at) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate  jdbc;
+    private final MeterRegistry meters;
+
+    @Value("${app.history.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.history.buffer-capacity:262144}")
+    private int requestedCapacity;
+
+    @Value("${app.history.flush-size:1000}")
+    private int flushSize;
+
+    // Ring columns, indexed by sequence & mask
+    private int      mask;
+    private int[]    assetIds;
+    private double[] prices;
+    private long[]   times;
+
+    private final AtomicLong head = new AtomicLong();   // next slot to write (producer)
+    private final AtomicLong tail = new AtomicLong();   // next slot to read  (consumer)
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong dropped  = new AtomicLong();
+    private final AtomicLong flushed  = new AtomicLong();
+    private final AtomicLong failed   = new AtomicLong();
+
+    private Timer flushTimer;
+
+    @PostConstruct
+    void init() {
+        int capacity = Integer.highestOneBit(Math.max(requestedCapacity - 1, 1)) << 1;
+        mask     = capacity - 1;
+        assetIds = new int[capacity];
+        prices   = new double[capacity];
+        times    = new long[capacity];
+
+        Gauge.builder("history.buffer.size", this, TickRecorder::buffered)
+            .description("Ticks waiting to be written to price_history")
+            .register(meters);
+        Gauge.builder("history.buffer.capacity", () -> capacity).register(meters);
+        FunctionCounter.builder("history.ticks", recorded, AtomicLong::get).tag("result", "recorded").register(meters);
+        FunctionCounter.builder("history.ticks", dropped,  AtomicLong::get).tag("result", "dropped").register(meters);
+        FunctionCounter.builder("history.ticks", flushed,  AtomicLong::get).tag("result", "flushed").register(meters);
+        FunctionCounter.builder("history.ticks", failed,   AtomicLong::get).tag("result", "failed").register(meters);
+        flushTimer = Timer.builder("history.flush").register(meters);
+    }
+
+    /** Producer side — runs on the simulation thread, never blocks. */
+    @EventListener
+    public void onTick(PriceTickEvent tick) {
+        if (!enabled) return;
+
+        PriceBook.Quotes q = tick.current();
+        long h     = head.get();
+        long limit = tail.get() + mask + 1;
+        int  lost  = 0;
+
+        for (int id : q.activeIds) {
+            if (!tick.moved(id)) continue;
+            if (h >= limit) {
+                lost++;
+                continue;
+            }
+            int slot = (int) (h & mask);
+            assetIds[slot] = id;
+            prices[slot]   = q.price[id];
+            times[slot]    = q.timestamp;
+            h++;
+        }
+
+        recorded.addAndGet(h - head.get());
+        head.lazySet(h);
+        if (lost > 0) {
+            dropped.addAndGet(lost);
+            log.warn("price_history buffer full — dropped {} ticks", lost);
+        }
+    }
+
+    /** Consumer side — drains everything published so far in flush-size batches. */
+    @Scheduled(fixedDelayString = "${app.history.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        long end = head.get();
+        long t   = tail.get();
+        if (t == end) return;
+
+        flushTimer.record(() -> {
+            long from = t;
+            while (from < end) {
+                int n = (int) Math.min(flushSize, end - from);
+                try {
+                    jdbc.batchUpdate(INSERT_SQL, new RingBatch(from, n));
+                    flushed.addAndGet(n);
+                } catch (Exception e) {
+                    failed.addAndGet(n);
+                    log.warn("Failed to write {} ticks to price_history: {}", n, e.getMessage());
+                }
+                from += n;
+                tail.lazySet(from);
+            }
+        });
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    public long buffered() {
+        return head.get() - tail.get();
+    }
+
+    private final class RingBatch implements BatchPreparedStatementSetter {
+        private final long from;
+        private final int  size;
+
+        RingBatch(long from, int size) {
+            this.from = from;
+            this.size = size;
+        }
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            int slot = (int) ((from + i) & mask);
+            ps.setLong(1, assetIds[slot]);
+            ps.setBigDecimal(2, PriceBook.toPrice(prices[slot]));
+            ps.setTimestamp(3, new Timestamp(times[slot]));
+        }
+
+        @Override
+        public int getBatchSize() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.investsimulator.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Position accounting used, through {@link Position}, by both the
+ * {@link TradingService} and the {@link Backtester}.
+ *
+ * Money amounts are DECIMAL(18,4) and unit prices DECIMAL(18,6), matching
+ * the columns they are stored in.
+ */
+public final class TradeAccounting {
+
+    /** A position at or below this quantity after a sell is closed. */
+    public static final BigDecimal DUST = new BigDecimal("0.00000001");
+
+    private TradeAccounting() {}
+
+    /** Cash value of {@code qty} units at {@code price}. */
+    public static BigDecimal notional(BigDecimal price, BigDecimal qty) {
+        return price.multiply(qty).setScale(4, RoundingMode.HALF_UP);
+    }
+
+    /** Average buy price after adding {@code qty} units at {@code price} to a position. */
+    public static BigDecimal weightedAverage(BigDecimal heldQty, BigDecimal heldAvg,
+                                             BigDecimal qty, BigDecimal price) {
+        if (heldQty.compareTo(BigDecimal.ZERO) == 0) return price;
+        return heldQty.multiply(heldAvg)
+            .add(qty.multiply(price))
+            .divide(heldQty.add(qty), 6, RoundingMode.HALF_UP);
+    }
+
+    /** P&L booked by selling {@code qty} units at {@code price} against {@code avgBuyPrice}. */
+    public static BigDecimal realizedPnl(BigDecimal price, BigDecimal avgBuyPrice, BigDecimal qty) {
+        return price.subtract(avgBuyPrice)
+            .multiply(qty)
+            .setScale(4, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * One holding's quantity, average price and invested cost. The trading
+     * service loads a {@code holdings} row into one, applies the fill and
+     * copies it back; the backtester keeps one per sleeve. Balance and
+     * quantity checks are the caller's.
+     */
+    public static final class Position {
+
+        private BigDecimal quantity      = BigDecimal.ZERO;
+        private BigDecimal avgBuyPrice   = BigDecimal.ZERO;
+        private BigDecimal totalInvested = BigDecimal.ZERO;
+        private BigDecimal realized      = BigDecimal.ZERO;
+
+        public Position() {}
+
+        public Position(BigDecimal quantity, BigDecimal avgBuyPrice, BigDecimal totalInvested) {
+            this.quantity      = quantity;
+            this.avgBuyPrice   = avgBuyPrice;
+            this.totalInvested = totalInvested;
+        }
+
+        /** Add {@code qty} units bought at {@code price}; returns the cost. */
+        public BigDecimal buy(BigDecimal qty, BigDecimal price) {
+            BigDecimal total = notional(price, qty);
+            avgBuyPrice   = weightedAverage(quantity, avgBuyPrice, qty, price);
+            quantity      = quantity.add(qty);
+            totalInvested = totalInvested.add(total);
+            return total;
+        }
+
+        /** Remove {@code qty} units sold at {@code price}; returns the realized P&L. */
+        public BigDecimal sell(BigDecimal qty, BigDecimal price) {
+            BigDecimal pnl    = TradeAccounting.realizedPnl(price, avgBuyPrice, qty);
+            BigDecimal newQty = quantity.subtract(qty);
+            if (newQty.compareTo(DUST) <= 0) {
+                quantity      = BigDecimal.ZERO;
+                avgBuyPrice   = BigDecimal.ZERO;
+                totalInvested = BigDecimal.ZERO;
+            } else {
+                totalInvested = totalInvested.subtract(avgBuyPrice.multiply(qty)).max(BigDecimal.ZERO);
+                quantity      = newQty;
+            }
+            realized = realized.add(pnl);
+            return pnl;
+        }
+
+        /** True once a sell has brought the quantity to {@link #DUST} or below. */
+        public boolean isClosed()         { return quantity.signum() == 0; }
+
+        public BigDecimal quantity()      { return quantity; }
+        public BigDecimal avgBuyPrice()   { return avgBuyPrice; }
+        public BigDecimal totalInvested() { return totalInvested; }
+        public BigDecimal realizedPnl()   { return realized; }
+    }
+}
@@ -0,0 +1,88 @@
+package com.investsimulator.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+
+/**
+ * One entry of the {@link TradeEventLog}.
+ *
+ * Each event carries the user's state after it was applied — cash balance
+ * and, for fills, the resulting position — so replay is last-write-wins per
+ * user and per (user, asset) with no arithmetic to redo. Amounts are stored
+ * as unscaled longs at the scale of their database column.
+ *
+ * Fixed 96-byte layout; {@code seq} is written last so a zero seq marks the
+ * end of a segment (or a write cut short by a crash).
+ */
+public record TradeEvent(
+    long seq,
+    long timestamp,
+    long userId,
+    long assetId,         // 0 for CASH events
+    Type type,
+    long quantity,        // scale 8, traded quantity
+    long price,           // scale 6
+    long balanceAfter,    // scale 4
+    long heldAfter,       // scale 8, 0 when the position was closed
+    long avgPriceAfter,   // scale 6
+    long investedAfter,   // scale 4
+    long realizedPnl      // scale 4, booked by this event
+) {
+
+    public static final int SIZE = 96;
+
+    public enum Type {
+        BUY, SELL,
+        /** Balance-only change: limit reservation / release, admin reset. */
+        CASH
+    }
+
+    public static TradeEvent fill(long userId, long assetId, Type type, BigDecimal qty, BigDecimal price,
+                                  BigDecimal balanceAfter, BigDecimal heldAfter, BigDecimal avgPriceAfter,
+                                  BigDecimal investedAfter, BigDecimal realizedPnl) {
+        return new TradeEvent(0, System.currentTimeMillis(), userId, assetId, type,
+            unscaled(qty, 8), unscaled(price, 6), unscaled(balanceAfter, 4),
+            unscaled(heldAfter, 8), unscaled(avgPriceAfter, 6), unscaled(investedAfter, 4),
+            unscaled(realizedPnl, 4));
+    }
+
+    public static TradeEvent cash(long userId, BigDecimal balanceAfter) {
+        return new TradeEvent(0, System.currentTimeMillis(), userId, 0, Type.CASH,
+            0, 0, unscaled(balanceAfter, 4), 0, 0, 0, 0);
+    }
+
+    TradeEvent withSeq(long seq) {
+        return new TradeEvent(seq, timestamp, userId, assetId, type, quantity, price,
+            balanceAfter, heldAfter, avgPriceAfter, investedAfter, realizedPnl);
+    }
+
+    /** Write at {@code offset}; the seq goes in last. */
+    void writeTo(ByteBuffer buf, int offset) {
+        buf.putLong(offset + 8, timestamp);
+        buf.putLong(offset + 16, userId);
+        buf.putLong(offset + 24, assetId);
+        buf.putInt(offset + 32, type.ordinal());
+        buf.putLong(offset + 40, quantity);
+        buf.putLong(offset + 48, price);
+        buf.putLong(offset + 56, balanceAfter);
+        buf.putLong(offset + 64, heldAfter);
+        buf.putLong(offset + 72, avgPriceAfter);
+        buf.putLong(offset + 80, investedAfter);
+        buf.putLong(offset + 88, realizedPnl);
+        buf.putLong(offset, seq);
+    }
+
+    static TradeEvent readFrom(ByteBuffer buf, int offset) {
+        return new TradeEvent(
+            buf.getLong(offset), buf.getLong(offset + 8), buf.getLong(offset + 16), buf.getLong(offset + 24),
+            Type.values()[buf.getInt(offset + 32)],
+            buf.getLong(offset + 40), buf.getLong(offset + 48), buf.getLong(offset + 56),
+            buf.getLong(offset + 64), buf.getLong(offset + 72), buf.getLong(offset + 80),
+            buf.getLong(offset + 88));
+    }
+
+    static long unscaled(BigDecimal v, int scale) {
+        return v == null ? 0 : v.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,174 @@
+package com.investsimulator.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only trade event log in memory-mapped segment files.
+ *
+ * Segments are preallocated files of fixed-size {@link TradeEvent} slots,
+ * named after the sequence number of their first event. Appends are a
+ * bounded memory copy into the mapped page cache; the mapping is forced to
+ * disk on a short schedule. On start-up the last segment is scanned to find
+ * where the previous run stopped.
+ *
+ * Events are appended after the trade's database commit, in per-user order
+ * (the user lock is still held). {@link LedgerReplay} rebuilds state from it.
+ */
+@Component
+@Slf4j
+public class TradeEventLog {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    @Value("${app.ledger.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.ledger.dir:./data/ledger}")
+    private String dir;
+
+    @Value("${app.ledger.segment-events:1048576}")
+    private int segmentEvents;
+
+    private Path             root;
+    private FileChannel      channel;
+    private MappedByteBuffer segment;
+    private long             segmentFirstSeq;
+    private int              slot;
+    private boolean          dirty;
+
+    private volatile long lastSeq = 0;
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled) return;
+        root = Paths.get(dir);
+        Files.createDirectories(root);
+
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            map(1);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            map(firstSeq(last));
+            while (slot < capacity() && segment.getLong(slot * TradeEvent.SIZE) == segmentFirstSeq + slot) {
+                slot++;
+            }
+            lastSeq = segmentFirstSeq + slot - 1;
+        }
+        log.info("Trade event log at {} — last seq {}", root.toAbsolutePath(), lastSeq);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Sequence number of the last appended event, 0 if none. */
+    public long lastSeq() {
+        return lastSeq;
+    }
+
+    /** Append an event; failures are logged, never thrown at the committed trade. */
+    public synchronized long append(TradeEvent event) {
+        if (!enabled) return 0;
+        try {
+            if (slot == capacity()) {
+                segment.force();
+                channel.close();
+                map(segmentFirstSeq + slot);
+            }
+            long seq = segmentFirstSeq + slot;
+            event.withSeq(seq).writeTo(segment, slot * TradeEvent.SIZE);
+            slot++;
+            dirty   = true;
+            lastSeq = seq;
+            return seq;
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to append {} event for user {}: {}", event.type(), event.userId(), e.getMessage());
+            return 0;
+        }
+    }
+
+    /** Visit events with {@code fromSeq <= seq <= toSeq}, in order. */
+    public void read(long fromSeq, long toSeq, Consumer<TradeEvent> visitor) {
+        if (!enabled || fromSeq > toSeq) return;
+        try {
+            for (Path file : segments()) {
+                long first = firstSeq(file);
+                long count = Files.size(file) / TradeEvent.SIZE;
+                if (first + count <= fromSeq) continue;
+                if (first > toSeq) break;
+
+                try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                    MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, count * TradeEvent.SIZE);
+                    for (long seq = Math.max(first, fromSeq); seq < first + count && seq <= toSeq; seq++) {
+                        int offset = (int) (seq - first) * TradeEvent.SIZE;
+                        if (buf.getLong(offset) != seq) return;   // end of the written log
+                        visitor.accept(TradeEvent.readFrom(buf, offset));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.ledger.force-interval-ms:1000}")
+    public synchronized void force() {
+        if (enabled && dirty) {
+            segment.force();
+            dirty = false;
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        if (!enabled) return;
+        force();
+        channel.close();
+    }
+
+    private void map(long firstSeq) throws IOException {
+        Path file = root.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+        boolean existed = Files.exists(file);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = existed ? channel.size() : (long) segmentEvents * TradeEvent.SIZE;
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        segmentFirstSeq = firstSeq;
+        slot = 0;
+    }
+
+    private int capacity() {
+        return segment.capacity() / TradeEvent.SIZE;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(root)) {
+            List<Path> out = new ArrayList<>(files
+                .filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                .toList());
+            out.sort(null);   // zero-padded names sort by first seq
+            return out;
+        }
+    }
+
+    private static long firstSeq(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
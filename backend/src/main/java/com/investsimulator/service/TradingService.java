@@ -4,32 +4,103 @@ import com.investsimulator.dto.*;
 import com.investsimulator.exception.*;
 import com.investsimulator.model.*;
 import com.investsimulator.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Core trading engine — handles buy and sell orders atomically.
- * All operations are ACID-compliant via @Transactional.
+ * All operations are ACID-compliant via a programmatic transaction.
+ *
+ * Orders are serialised per user: the user's {@link UserLocks} stripe is
+ * held around the whole transaction, and the user row is read with
+ * SELECT ... FOR UPDATE so other application instances queue on it too.
+ * Balance and holding read-modify-writes therefore never interleave.
+ *
+ * LIMIT orders that are not marketable on arrival rest in the
+ * {@link LimitOrderBook}; {@link LimitOrderMatcher} hands crossed orders
+ * back to {@link #fillLimitOrder}.
+ *
+ * Metrics: trade.execute{side, order, outcome} (end to end, including the
+ * wait for the user lock), trade.transaction (inside the lock: queries,
+ * writes and commit), trade.batch.
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class TradingService {
 
+    private static final String NO_BALANCE  = "Insufficient balance";
+    private static final String NO_HOLDINGS = "Insufficient holdings";
+
     private final UserRepository       userRepo;
     private final AssetRepository      assetRepo;
     private final HoldingRepository    holdingRepo;
     private final TransactionRepository txRepo;
     private final PortfolioRepository  portfolioRepo;
+    private final LimitOrderRepository limitOrderRepo;
+    private final PriceBook            priceBook;
+    private final LimitOrderBook       orderBook;
+    private final PortfolioValuations  valuations;
+    private final Leaderboard          leaderboard;
+    private final TradeEventLog        eventLog;
+    private final UserLocks            userLocks;
+    private final TransactionTemplate  txTemplate;
+    private final MeterRegistry        meters;
+
+    private Timer transactionTimer;
+    private Timer batchTimer;
+
+    @PostConstruct
+    void init() {
+        transactionTimer = Timer.builder("trade.transaction")
+            .description("Trade transaction time while holding the user lock")
+            .register(meters);
+        batchTimer = Timer.builder("trade.batch").register(meters);
+    }
 
-    @Transactional
     public TradeResponse executeTrade(Long userId, TradeRequest req) {
-        User  user  = userRepo.findById(userId)
+        Timer.Sample sample = Timer.start(meters);
+        String outcome = "error";
+        try {
+            TradeResponse result = userLocks.withUser(userId, () -> transactionTimer.record(
+                () -> txTemplate.execute(status -> doExecuteTrade(userId, req))));
+            outcome = outcome(result);
+            return result;
+        } catch (BusinessException | ResourceNotFoundException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("trade.execute")
+                .tag("side", req.tradeType().toUpperCase())
+                .tag("order", req.orderType().toUpperCase())
+                .tag("outcome", outcome)
+                .register(meters));
+        }
+    }
+
+    private static String outcome(TradeResponse r) {
+        if (r.success()) return r.transaction() != null ? "filled" : "resting";
+        if (r.message().startsWith(NO_BALANCE))  return "insufficient_balance";
+        if (r.message().startsWith(NO_HOLDINGS)) return "insufficient_holdings";
+        return "rejected";
+    }
+
+    private TradeResponse doExecuteTrade(Long userId, TradeRequest req) {
+        User  user  = userRepo.findByIdForUpdate(userId)
             .orElseThrow(() -> new ResourceNotFoundException("User not found: " + userId));
         Asset asset = assetRepo.findById(req.assetId())
             .orElseThrow(() -> new ResourceNotFoundException("Asset not found: " + req.assetId()));
@@ -38,8 +109,24 @@ public class TradingService {
             throw new BusinessException("Asset is not available for trading: " + asset.getSymbol());
         }
 
-        BigDecimal price = asset.getCurrentPrice();
-        BigDecimal total = price.multiply(req.quantity()).setScale(4, RoundingMode.HALF_UP);
+        // Live price comes from the in-memory book; the row may lag a flush behind
+        BigDecimal price = priceBook.getPrice(asset.getId());
+        if (price == null) {
+            throw new BusinessException("No live price for asset: " + asset.getSymbol());
+        }
+        BigDecimal total = TradeAccounting.notional(price, req.quantity());
+
+        if ("LIMIT".equalsIgnoreCase(req.orderType())) {
+            BigDecimal limit = req.limitPrice();
+            if (limit == null || limit.compareTo(BigDecimal.ZERO) <= 0) {
+                throw new BusinessException("A positive limit price is required for LIMIT orders");
+            }
+            boolean buy = "BUY".equalsIgnoreCase(req.tradeType());
+            boolean marketable = buy ? price.compareTo(limit) <= 0 : price.compareTo(limit) >= 0;
+            if (!marketable && (buy || "SELL".equalsIgnoreCase(req.tradeType()))) {
+                return placeLimitOrder(user, asset, buy, req.quantity(), limit);
+            }
+        }
 
         return switch (req.tradeType().toUpperCase()) {
             case "BUY"  -> executeBuy(user, asset, req.quantity(), price, total, req.orderType());
@@ -55,7 +142,7 @@ public class TradingService {
         // Balance check
         if (user.getVirtualBalance().compareTo(total) < 0) {
             return new TradeResponse(false,
-                String.format("Insufficient balance. Need ₹%.2f but have ₹%.2f",
+                String.format(NO_BALANCE + ". Need ₹%.2f but have ₹%.2f",
                     total, user.getVirtualBalance()),
                 user.getVirtualBalance(), null);
         }
@@ -73,18 +160,14 @@ public class TradingService {
                 .totalInvested(BigDecimal.ZERO)
                 .build());
 
-        BigDecimal newQty = holding.getQuantity().add(qty);
-        BigDecimal newAvg = holding.getQuantity().compareTo(BigDecimal.ZERO) == 0
-            ? price
-            : (holding.getQuantity().multiply(holding.getAvgBuyPrice())
-                .add(qty.multiply(price)))
-                .divide(newQty, 6, RoundingMode.HALF_UP);
-
-        holding.setQuantity(newQty);
-        holding.setAvgBuyPrice(newAvg);
-        holding.setTotalInvested(holding.getTotalInvested().add(total));
+        TradeAccounting.Position position = positionOf(holding);
+        position.buy(qty, price);
+        store(position, holding);
         holdingRepo.save(holding);
 
+        afterFill(user, asset, Transaction.TradeType.BUY, qty, price,
+            position.quantity(), position.avgBuyPrice(), position.totalInvested(), BigDecimal.ZERO);
+
         // Record transaction
         Transaction tx = Transaction.builder()
             .user(user).asset(asset)
@@ -106,38 +189,44 @@ public class TradingService {
 
     private TradeResponse executeSell(User user, Asset asset, BigDecimal qty,
                                        BigDecimal price, BigDecimal total, String orderType) {
+        return executeSell(user, asset, qty, price, total, orderType, BigDecimal.ZERO);
+    }
+
+    /** {@code ownReserved}: the part of the reservation held by the limit order being filled. */
+    private TradeResponse executeSell(User user, Asset asset, BigDecimal qty, BigDecimal price,
+                                       BigDecimal total, String orderType, BigDecimal ownReserved) {
         Holding holding = holdingRepo.findByUserIdAndAssetId(user.getId(), asset.getId())
             .orElseThrow(() -> new BusinessException("You don't hold any " + asset.getName()));
 
-        if (holding.getQuantity().compareTo(qty) < 0) {
+        // Quantity promised to other open SELL limit orders is not available
+        BigDecimal available = holding.getQuantity()
+            .subtract(orderBook.reservedQuantity(user.getId(), asset.getId()))
+            .add(ownReserved);
+        if (available.compareTo(qty) < 0) {
             return new TradeResponse(false,
-                String.format("Insufficient holdings. Have %.4f but trying to sell %.4f",
-                    holding.getQuantity(), qty),
+                String.format(NO_HOLDINGS + ". Have %.4f available but trying to sell %.4f",
+                    available, qty),
                 user.getVirtualBalance(), null);
         }
 
         // Realized P&L
-        BigDecimal realizedPnl = price.subtract(holding.getAvgBuyPrice())
-            .multiply(qty)
-            .setScale(4, RoundingMode.HALF_UP);
-
         BigDecimal avgSnapshot = holding.getAvgBuyPrice();
+        TradeAccounting.Position position = positionOf(holding);
+        BigDecimal realizedPnl = position.sell(qty, price);
 
         // Credit balance
         user.setVirtualBalance(user.getVirtualBalance().add(total));
         userRepo.save(user);
 
         // Update or remove holding
-        BigDecimal newQty = holding.getQuantity().subtract(qty);
-        if (newQty.compareTo(new BigDecimal("0.00000001")) <= 0) {
+        if (position.isClosed()) {
             holdingRepo.delete(holding);
         } else {
-            BigDecimal costReduced = holding.getAvgBuyPrice().multiply(qty);
-            holding.setQuantity(newQty);
-            holding.setTotalInvested(
-                holding.getTotalInvested().subtract(costReduced).max(BigDecimal.ZERO));
+            store(position, holding);
             holdingRepo.save(holding);
         }
+        afterFill(user, asset, Transaction.TradeType.SELL, qty, price,
+            position.quantity(), avgSnapshot, position.totalInvested(), realizedPnl);
 
         // Record transaction
         Transaction tx = Transaction.builder()
@@ -165,8 +254,406 @@ public class TradingService {
             user.getVirtualBalance(), mapTx(tx));
     }
 
+    // ---- BATCH --------------------------------------------------------------
+
+    /**
+     * Execute a batch of MARKET orders for one user in a single transaction.
+     * The user row, holdings and assets are loaded once, fills are applied in
+     * memory in request order, and changed rows are written together at the
+     * end (batched by Hibernate). A rejected order does not affect the others.
+     */
+    public BatchTradeResponse executeBatch(Long userId, List<TradeRequest> orders) {
+        return batchTimer.record(() -> userLocks.withUser(userId,
+            () -> txTemplate.execute(status -> doExecuteBatch(userId, orders))));
+    }
+
+    private BatchTradeResponse doExecuteBatch(Long userId, List<TradeRequest> orders) {
+        User user = userRepo.findByIdForUpdate(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("User not found: " + userId));
+        Map<Long, Asset> assets = assetRepo.findAllById(
+                orders.stream().map(TradeRequest::assetId).distinct().toList())
+            .stream()
+            .collect(Collectors.toMap(Asset::getId, a -> a));
+        Map<Long, Holding> holdings = holdingRepo.findAllByUserId(userId).stream()
+            .collect(Collectors.toMap(h -> h.getAsset().getId(), h -> h, (a, b) -> a, HashMap::new));
+
+        Map<Long, Holding>    closed   = new HashMap<>();        // sold out in this batch
+        Map<Long, BigDecimal> touched  = new LinkedHashMap<>();  // assetId -> realized P&L
+        Transaction[]         fills    = new Transaction[orders.size()];
+        String[]              messages = new String[orders.size()];
+        BigDecimal[]          balances = new BigDecimal[orders.size()];
+        List<TradeEvent>      events   = new ArrayList<>();
+
+        for (int i = 0; i < orders.size(); i++) {
+            TradeRequest req   = orders.get(i);
+            Asset        asset = assets.get(req.assetId());
+            BigDecimal   price = asset != null ? priceBook.getPrice(asset.getId()) : null;
+            balances[i] = user.getVirtualBalance();
+
+            if (asset == null) {
+                messages[i] = "Asset not found: " + req.assetId();
+            } else if (!asset.getIsActive()) {
+                messages[i] = "Asset is not available for trading: " + asset.getSymbol();
+            } else if (price == null) {
+                messages[i] = "No live price for asset: " + asset.getSymbol();
+            } else if (!"MARKET".equalsIgnoreCase(req.orderType())) {
+                messages[i] = "Only MARKET orders can be batched";
+            } else if ("BUY".equalsIgnoreCase(req.tradeType())) {
+                fills[i] = batchBuy(user, asset, holdings, closed, req.quantity(), price, messages, i);
+            } else {
+                fills[i] = batchSell(user, asset, holdings, closed, req.quantity(), price, messages, i);
+            }
+
+            if (fills[i] != null) {
+                BigDecimal pnl = fills[i].getRealizedPnl() != null ? fills[i].getRealizedPnl() : BigDecimal.ZERO;
+                touched.merge(asset.getId(), pnl, BigDecimal::add);
+                balances[i] = user.getVirtualBalance();
+
+                Holding h = holdings.get(asset.getId());
+                events.add(TradeEvent.fill(userId, asset.getId(),
+                    fills[i].getType() == Transaction.TradeType.BUY ? TradeEvent.Type.BUY : TradeEvent.Type.SELL,
+                    fills[i].getQuantity(), price, user.getVirtualBalance(),
+                    h != null ? h.getQuantity() : BigDecimal.ZERO,
+                    h != null ? h.getAvgBuyPrice() : fills[i].getAvgBuyPriceSnapshot(),
+                    h != null ? h.getTotalInvested() : BigDecimal.ZERO,
+                    pnl));
+            }
+        }
+
+        // ---- Flush: one user update, then holdings and ledger in batches ----
+        List<Transaction> ledger = Arrays.stream(fills).filter(Objects::nonNull).toList();
+        if (!ledger.isEmpty()) {
+            userRepo.save(user);
+            holdingRepo.saveAll(touched.keySet().stream()
+                .filter(holdings::containsKey).map(holdings::get).toList());
+            holdingRepo.deleteAll(closed.values().stream().filter(h -> h.getId() != null).toList());
+            txRepo.saveAll(ledger);
+
+            BigDecimal realized = touched.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+            if (realized.signum() != 0) {
+                portfolioRepo.findByUserId(userId).ifPresent(p -> {
+                    p.setRealizedPnl(p.getRealizedPnl().add(realized));
+                    portfolioRepo.save(p);
+                });
+            }
+
+            touched.forEach((assetId, pnl) -> {
+                Asset   asset = assets.get(assetId);
+                Holding h     = holdings.get(assetId);
+                BigDecimal qty      = h != null ? h.getQuantity() : BigDecimal.ZERO;
+                BigDecimal avg      = h != null ? h.getAvgBuyPrice() : BigDecimal.ZERO;
+                BigDecimal invested = h != null ? h.getTotalInvested() : BigDecimal.ZERO;
+                afterCommit(() -> valuations.onTrade(userId, asset, qty, avg, invested, pnl));
+            });
+            BigDecimal balance = user.getVirtualBalance();
+            afterCommit(() -> {
+                leaderboard.onCash(userId, balance);
+                events.forEach(eventLog::append);
+            });
+        }
+
+        List<TradeResponse> results = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            results.add(new TradeResponse(fills[i] != null, messages[i], balances[i],
+                fills[i] != null ? mapTx(fills[i]) : null));
+        }
+
+        log.info("BATCH executed: user={} orders={} filled={}", user.getEmail(), orders.size(), ledger.size());
+
+        return new BatchTradeResponse(ledger.size(), orders.size() - ledger.size(),
+            user.getVirtualBalance(), results);
+    }
+
+    private Transaction batchBuy(User user, Asset asset, Map<Long, Holding> holdings, Map<Long, Holding> closed,
+                                 BigDecimal qty, BigDecimal price, String[] messages, int i) {
+        BigDecimal total = TradeAccounting.notional(price, qty);
+        if (user.getVirtualBalance().compareTo(total) < 0) {
+            messages[i] = String.format(NO_BALANCE + ". Need ₹%.2f but have ₹%.2f",
+                total, user.getVirtualBalance());
+            return null;
+        }
+
+        Holding holding = holdings.get(asset.getId());
+        if (holding == null) {
+            // Reopen a row sold out earlier in the batch rather than insert a duplicate
+            holding = closed.remove(asset.getId());
+            if (holding == null) {
+                holding = Holding.builder().user(user).asset(asset).build();
+            }
+            store(new TradeAccounting.Position(), holding);
+            holdings.put(asset.getId(), holding);
+        }
+
+        user.setVirtualBalance(user.getVirtualBalance().subtract(total));
+        TradeAccounting.Position position = positionOf(holding);
+        position.buy(qty, price);
+        store(position, holding);
+
+        messages[i] = String.format("Bought %.4f %s @ ₹%.2f", qty, asset.getName(), price);
+        return Transaction.builder()
+            .user(user).asset(asset)
+            .type(Transaction.TradeType.BUY)
+            .orderType(Transaction.OrderType.MARKET)
+            .quantity(qty).pricePerUnit(price).totalAmount(total)
+            .build();
+    }
+
+    private Transaction batchSell(User user, Asset asset, Map<Long, Holding> holdings, Map<Long, Holding> closed,
+                                  BigDecimal qty, BigDecimal price, String[] messages, int i) {
+        Holding holding = holdings.get(asset.getId());
+        if (holding == null) {
+            messages[i] = "You don't hold any " + asset.getName();
+            return null;
+        }
+        BigDecimal available = holding.getQuantity()
+            .subtract(orderBook.reservedQuantity(user.getId(), asset.getId()));
+        if (available.compareTo(qty) < 0) {
+            messages[i] = String.format(NO_HOLDINGS + ". Have %.4f available but trying to sell %.4f",
+                available, qty);
+            return null;
+        }
+
+        BigDecimal total = TradeAccounting.notional(price, qty);
+        BigDecimal avg   = holding.getAvgBuyPrice();
+        TradeAccounting.Position position = positionOf(holding);
+        BigDecimal pnl   = position.sell(qty, price);
+
+        user.setVirtualBalance(user.getVirtualBalance().add(total));
+        if (position.isClosed()) {
+            holdings.remove(asset.getId());
+            closed.put(asset.getId(), holding);
+        } else {
+            store(position, holding);
+        }
+
+        messages[i] = String.format("Sold %.4f %s @ ₹%.2f | P&L: %s₹%.2f",
+            qty, asset.getName(), price, pnl.compareTo(BigDecimal.ZERO) >= 0 ? "+" : "", pnl);
+        return Transaction.builder()
+            .user(user).asset(asset)
+            .type(Transaction.TradeType.SELL)
+            .orderType(Transaction.OrderType.MARKET)
+            .quantity(qty).pricePerUnit(price).totalAmount(total)
+            .realizedPnl(pnl).avgBuyPriceSnapshot(avg)
+            .build();
+    }
+
+    // ---- LIMIT --------------------------------------------------------------
+
+    private TradeResponse placeLimitOrder(User user, Asset asset, boolean buy,
+                                          BigDecimal qty, BigDecimal limit) {
+        BigDecimal reserve = BigDecimal.ZERO;
+        if (buy) {
+            // Hold back the worst-case cost; the fill refunds any price improvement
+            reserve = TradeAccounting.notional(limit, qty);
+            if (user.getVirtualBalance().compareTo(reserve) < 0) {
+                return new TradeResponse(false,
+                    String.format(NO_BALANCE + ". Need ₹%.2f to reserve but have ₹%.2f",
+                        reserve, user.getVirtualBalance()),
+                    user.getVirtualBalance(), null);
+            }
+            user.setVirtualBalance(user.getVirtualBalance().subtract(reserve));
+            userRepo.save(user);
+        } else {
+            BigDecimal held = holdingRepo.findByUserIdAndAssetId(user.getId(), asset.getId())
+                .map(Holding::getQuantity)
+                .orElse(BigDecimal.ZERO);
+            BigDecimal available = held.subtract(orderBook.reservedQuantity(user.getId(), asset.getId()));
+            if (available.compareTo(qty) < 0) {
+                return new TradeResponse(false,
+                    String.format(NO_HOLDINGS + ". Have %.4f available but trying to sell %.4f",
+                        available, qty),
+                    user.getVirtualBalance(), null);
+            }
+        }
+
+        LimitOrder order = LimitOrder.builder()
+            .user(user).asset(asset)
+            .side(buy ? Transaction.TradeType.BUY : Transaction.TradeType.SELL)
+            .quantity(qty)
+            .limitPrice(limit.setScale(6, RoundingMode.HALF_UP))
+            .reservedAmount(reserve)
+            .build();
+        limitOrderRepo.save(order);
+
+        // Only rest the order once its reservation is durable
+        LimitOrderBook.Resting resting = LimitOrderBook.Resting.of(order);
+        afterCommit(() -> orderBook.add(resting));
+        if (buy) afterCash(user);   // after the book holds the reservation, so equity stays whole
+
+        log.info("LIMIT {} placed: user={} asset={} qty={} limit={} reserved={}",
+            order.getSide(), user.getEmail(), asset.getSymbol(), qty, limit, reserve);
+
+        return new TradeResponse(true,
+            String.format("Limit %s placed: %.4f %s @ ₹%.2f",
+                buy ? "buy" : "sell", qty, asset.getName(), limit),
+            user.getVirtualBalance(), null);
+    }
+
+    /**
+     * Settle a limit order the matcher took out of the book at {@code price}.
+     * The BUY cash reservation is released and the normal buy/sell path
+     * applied; an order that can no longer settle is cancelled instead.
+     * The SELL quantity reservation is dropped from the book only once the
+     * outcome has committed, still under the user's lock; if this throws, it
+     * is kept and the caller restores the order.
+     */
+    public void fillLimitOrder(LimitOrderBook.Resting resting, BigDecimal price) {
+        userLocks.withUser(resting.userId(), () -> txTemplate.execute(status -> {
+            afterCommit(() -> orderBook.settle(resting.orderId()));
+            LimitOrder order = limitOrderRepo.findWithAssetById(resting.orderId()).orElse(null);
+            if (order == null || order.getStatus() != LimitOrder.Status.OPEN) return null;
+
+            User user = userRepo.findByIdForUpdate(resting.userId())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + resting.userId()));
+            Asset      asset = order.getAsset();
+            BigDecimal qty   = order.getQuantity();
+            BigDecimal total = TradeAccounting.notional(price, qty);
+
+            user.setVirtualBalance(user.getVirtualBalance().add(order.getReservedAmount()));
+
+            TradeResponse result;
+            try {
+                result = order.getSide() == Transaction.TradeType.BUY
+                    ? executeBuy(user, asset, qty, price, total, "LIMIT")
+                    : executeSell(user, asset, qty, price, total, "LIMIT", resting.quantity());
+            } catch (BusinessException e) {
+                result = new TradeResponse(false, e.getMessage(), user.getVirtualBalance(), null);
+            }
+
+            if (!result.success() && order.getReservedAmount().signum() > 0) afterCash(user);
+            order.setStatus(result.success() ? LimitOrder.Status.FILLED : LimitOrder.Status.CANCELLED);
+            order.setFillPrice(result.success() ? price : null);
+            order.setClosedAt(LocalDateTime.now());
+            limitOrderRepo.save(order);
+            userRepo.save(user);
+
+            log.info("LIMIT order {} {} at {}: {}", order.getId(), order.getStatus(), price, result.message());
+            return null;
+        }));
+    }
+
+    /** Cancel an open order and return its reservation. */
+    public LimitOrderDTO cancelLimitOrder(Long userId, Long orderId) {
+        return userLocks.withUser(userId, () -> {
+            LimitOrder order = limitOrderRepo.findByIdAndUserId(orderId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found: " + orderId));
+            if (order.getStatus() != LimitOrder.Status.OPEN) {
+                throw new BusinessException("Order is already " + order.getStatus().name().toLowerCase());
+            }
+            LimitOrderBook.Resting resting = LimitOrderBook.Resting.of(order);
+            if (!orderBook.remove(orderId)) {
+                throw new BusinessException("Order is being filled and can no longer be cancelled");
+            }
+
+            try {
+                return txTemplate.execute(status -> {
+                    LimitOrder o = limitOrderRepo.findWithAssetById(orderId).orElseThrow();
+                    User user = userRepo.findByIdForUpdate(userId).orElseThrow();
+                    user.setVirtualBalance(user.getVirtualBalance().add(o.getReservedAmount()));
+                    userRepo.save(user);
+                    if (o.getReservedAmount().signum() > 0) afterCash(user);
+
+                    o.setStatus(LimitOrder.Status.CANCELLED);
+                    o.setClosedAt(LocalDateTime.now());
+                    limitOrderRepo.save(o);
+                    return mapOrder(o);
+                });
+            } catch (RuntimeException e) {
+                orderBook.add(resting);
+                throw e;
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<LimitOrderDTO> getLimitOrders(Long userId, boolean openOnly) {
+        List<LimitOrder> orders = openOnly
+            ? limitOrderRepo.findAllByUserIdAndStatusOrderByCreatedAtDesc(userId, LimitOrder.Status.OPEN)
+            : limitOrderRepo.findAllByUserIdOrderByCreatedAtDesc(userId);
+        return orders.stream().map(this::mapOrder).collect(Collectors.toList());
+    }
+
+    // ---- Admin --------------------------------------------------------------
+
+    /** Reset a user's cash to their initial capital; holdings are left as they are. */
+    public User resetBalance(Long userId) {
+        return userLocks.withUser(userId, () -> txTemplate.execute(status -> {
+            User user = userRepo.findByIdForUpdate(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+            user.setVirtualBalance(user.getInitialCapital());
+            userRepo.save(user);
+            afterCash(user);
+            return user;
+        }));
+    }
+
+    // ---- After commit -------------------------------------------------------
+
+    /** Publish a committed fill's post-trade position to the valuations, leaderboard and event log. */
+    private void afterFill(User user, Asset asset, Transaction.TradeType side, BigDecimal qty, BigDecimal price,
+                           BigDecimal heldAfter, BigDecimal avgAfter, BigDecimal investedAfter, BigDecimal pnl) {
+        BigDecimal balance = user.getVirtualBalance();
+        TradeEvent event = TradeEvent.fill(user.getId(), asset.getId(),
+            side == Transaction.TradeType.BUY ? TradeEvent.Type.BUY : TradeEvent.Type.SELL,
+            qty, price, balance, heldAfter, avgAfter, investedAfter, pnl);
+        afterCommit(() -> {
+            valuations.onTrade(user.getId(), asset, heldAfter, avgAfter, investedAfter, pnl);
+            leaderboard.onCash(user.getId(), balance);
+            eventLog.append(event);
+        });
+    }
+
+    /** Log a committed balance-only change (reservation, release, reset). */
+    private void afterCash(User user) {
+        BigDecimal balance = user.getVirtualBalance();
+        TradeEvent event = TradeEvent.cash(user.getId(), balance);
+        afterCommit(() -> {
+            leaderboard.onCash(user.getId(), balance);
+            eventLog.append(event);
+        });
+    }
+
+    /** Run {@code action} once the surrounding transaction has committed. */
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // ---- Holding <-> Position -----------------------------------------------
+
+    /** Fills go through {@link TradeAccounting.Position}, the same rules the backtester replays. */
+    private static TradeAccounting.Position positionOf(Holding h) {
+        return new TradeAccounting.Position(h.getQuantity(), h.getAvgBuyPrice(), h.getTotalInvested());
+    }
+
+    private static void store(TradeAccounting.Position p, Holding h) {
+        h.setQuantity(p.quantity());
+        h.setAvgBuyPrice(p.avgBuyPrice());
+        h.setTotalInvested(p.totalInvested());
+    }
+
     // ---- Mapper -------------------------------------------------------------
 
+    private LimitOrderDTO mapOrder(LimitOrder o) {
+        return new LimitOrderDTO(
+            o.getId(),
+            o.getAsset().getId(),
+            o.getAsset().getSymbol(),
+            o.getSide().name(),
+            o.getQuantity(),
+            o.getLimitPrice(),
+            o.getReservedAmount(),
+            o.getStatus().name(),
+            o.getFillPrice(),
+            o.getCreatedAt().toString(),
+            o.getClosedAt() != null ? o.getClosedAt().toString() : null
+        );
+    }
+
     private TransactionDTO mapTx(Transaction tx) {
         return new TransactionDTO(
             tx.getId(),
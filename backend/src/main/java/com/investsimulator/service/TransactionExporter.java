@@ -0,0 +1,186 @@
+package com.investsimulator.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Full transaction history export, oldest first, as CSV or NDJSON.
+ *
+ * Rows come off a streaming cursor ({@link StreamingJdbc}) and are written
+ * straight to the response stream, so memory stays flat however many trades
+ * a user has. No entities or DTOs are built per row.
+ *
+ * Each export holds a pooled connection for as long as the client reads, so
+ * at most {@code app.export.max-concurrent} run at once; callers claim a slot
+ * with {@link #tryAcquire()} and answer 503 when none is free.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TransactionExporter {
+
+    private static final String SQL =
+        "SELECT t.id, t.executed_at, a.symbol, a.name, a.type, t.type, t.order_type, " +
+        "       t.quantity, t.price_per_unit, t.total_amount, t.realized_pnl " +
+        "FROM transactions t JOIN assets a ON a.id = t.asset_id " +
+        "WHERE t.user_id = ? ORDER BY t.executed_at, t.id";
+
+    private static final String[] COLUMNS = {
+        "id", "executedAt", "assetSymbol", "assetName", "assetType", "type", "orderType",
+        "quantity", "pricePerUnit", "totalAmount", "realizedPnl"
+    };
+
+    public enum Format {
+        CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8)),
+        NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson"));
+
+        public final String    extension;
+        public final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+    }
+
+    private final StreamingJdbc jdbc;
+    private final JsonFactory   json = new JsonFactory();
+
+    @Value("${app.export.max-concurrent:4}")
+    private int maxConcurrent;
+
+    private Semaphore slots;
+
+    @PostConstruct
+    void init() {
+        slots = new Semaphore(Math.max(1, maxConcurrent));
+    }
+
+    /** Claim an export slot; false when {@code max-concurrent} exports are already streaming. */
+    public boolean tryAcquire() {
+        return slots.tryAcquire();
+    }
+
+    /** Give back a slot claimed with {@link #tryAcquire()}. */
+    public void release() {
+        slots.release();
+    }
+
+    /** Write every transaction of {@code userId} to {@code out}; returns the row count. */
+    public long export(long userId, Format format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rows = format == Format.CSV ? new CsvRows(writer) : new JsonRows(json.createGenerator(writer));
+
+        long[] count = {0};
+        try {
+            jdbc.streamingQuery(SQL, ps -> ps.setLong(1, userId), rs -> {
+                try {
+                    rows.write(rs);
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            rows.finish();
+        } catch (UncheckedIOException e) {
+            // Client went away mid-download; the cursor is closed by JdbcTemplate
+            log.debug("Export for user {} aborted after {} rows: {}", userId, count[0], e.getMessage());
+            throw e.getCause();
+        }
+        log.info("Exported {} transactions for user {} as {} in {} ms",
+            count[0], userId, format, (System.nanoTime() - start) / 1_000_000);
+        return count[0];
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRows implements RowWriter {
+        private final Writer w;
+
+        CsvRows(Writer w) throws IOException {
+            this.w = w;
+            w.write(String.join(",", COLUMNS));
+            w.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            w.write(Long.toString(rs.getLong(1)));
+            w.write(',');
+            w.write(rs.getTimestamp(2).toLocalDateTime().toString());
+            for (int col = 3; col <= 7; col++) {
+                w.write(',');
+                quote(rs.getString(col));
+            }
+            for (int col = 8; col <= 11; col++) {
+                w.write(',');
+                BigDecimal v = rs.getBigDecimal(col);
+                if (v != null) w.write(v.toPlainString());
+            }
+            w.write('\n');
+        }
+
+        private void quote(String s) throws IOException {
+            if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) {
+                w.write(s);
+                return;
+            }
+            w.write('"');
+            w.write(s.replace("\"", "\"\""));
+            w.write('"');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            w.flush();
+        }
+    }
+
+    private static final class JsonRows implements RowWriter {
+        private final JsonGenerator g;
+
+        JsonRows(JsonGenerator g) {
+            this.g = g;
+            g.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            g.writeStartObject();
+            g.writeNumberField(COLUMNS[0], rs.getLong(1));
+            g.writeStringField(COLUMNS[1], rs.getTimestamp(2).toLocalDateTime().toString());
+            for (int col = 3; col <= 7; col++) {
+                g.writeStringField(COLUMNS[col - 1], rs.getString(col));
+            }
+            for (int col = 8; col <= 11; col++) {
+                BigDecimal v = rs.getBigDecimal(col);
+                if (v == null) g.writeNullField(COLUMNS[col - 1]);
+                else           g.writeNumberField(COLUMNS[col - 1], v);
+            }
+            g.writeEndObject();
+            g.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            g.flush();
+        }
+    }
+}
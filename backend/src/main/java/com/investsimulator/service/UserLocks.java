@@ -0,0 +1,52 @@
+package com.investsimulator.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped per-user write locks.
+ *
+ * Every code path that reads-then-writes a user's balance or holdings runs
+ * under the user's stripe, so two orders from the same user are applied one
+ * after the other while different users proceed in parallel. The stripe is
+ * taken outside the database transaction and released after commit.
+ */
+@Component
+public class UserLocks {
+
+    @Value("${app.trading.lock-stripes:1024}")
+    private int requestedStripes;
+
+    private ReentrantLock[] stripes;
+
+    @PostConstruct
+    void init() {
+        int n = Integer.highestOneBit(Math.max(requestedStripes - 1, 1)) << 1;
+        stripes = new ReentrantLock[n];
+        for (int i = 0; i < n; i++) stripes[i] = new ReentrantLock();
+    }
+
+    /** Run {@code work} while holding the user's stripe. */
+    public <T> T withUser(long userId, Supplier<T> work) {
+        ReentrantLock lock = stripeFor(userId);
+        lock.lock();
+        try {
+            return work.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock stripeFor(long userId) {
+        return stripes[stripeIndex(userId)];
+    }
+
+    private int stripeIndex(long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (stripes.length - 1);
+    }
+}
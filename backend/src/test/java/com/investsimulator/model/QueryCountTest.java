@@ -0,0 +1,123 @@
+package com.investsimulator.model;
+
+import com.investsimulator.repository.HoldingRepository;
+import com.investsimulator.repository.TransactionRepository;
+import com.investsimulator.repository.WatchlistRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statements per read path, counted with Hibernate statistics, so a LAZY
+ * association touched outside its fetch join (an N+1) fails the build.
+ * Runs against an embedded H2 (MySQL mode) with the schema generated from the
+ * entities; lives in the model package because the entities are package-private.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:queries;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class QueryCountTest {
+
+    private static final int ASSETS = 5;
+
+    @Autowired private EntityManager         em;
+    @Autowired private HoldingRepository     holdingRepo;
+    @Autowired private TransactionRepository txRepo;
+    @Autowired private WatchlistRepository   watchlistRepo;
+
+    private Statistics stats;
+    private Long       userId;
+
+    @BeforeEach
+    void seed() {
+        User user = User.builder()
+            .fullName("Query Count").email("queries@example.com").passwordHash("x")
+            .virtualBalance(BigDecimal.valueOf(100_000)).initialCapital(BigDecimal.valueOf(100_000))
+            .build();
+        em.persist(user);
+        userId = user.getId();
+
+        List<Asset> assets = new ArrayList<>();
+        for (int i = 0; i < ASSETS; i++) {
+            Asset a = Asset.builder()
+                .symbol("NSE:TEST" + i).name("Test " + i).type(Asset.AssetType.STOCK).sector("IT")
+                .basePrice(BigDecimal.valueOf(100 + i)).currentPrice(BigDecimal.valueOf(100 + i))
+                .build();
+            em.persist(a);
+            assets.add(a);
+        }
+        for (Asset a : assets) {
+            em.persist(Holding.builder().user(user).asset(a)
+                .quantity(BigDecimal.ONE).avgBuyPrice(a.getBasePrice()).totalInvested(a.getBasePrice())
+                .build());
+            em.persist(WatchlistItem.builder().user(user).asset(a).build());
+            for (int t = 0; t < 4; t++) {
+                em.persist(Transaction.builder().user(user).asset(a)
+                    .type(Transaction.TradeType.BUY)
+                    .quantity(BigDecimal.ONE).pricePerUnit(a.getBasePrice()).totalAmount(a.getBasePrice())
+                    .build());
+            }
+        }
+        em.flush();
+        em.clear();
+
+        stats = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+    }
+
+    @Test
+    void holdingsWithTheirAssetsLoadInOneStatement() {
+        List<Holding> holdings = holdingRepo.findAllByUserId(userId);
+        for (Holding h : holdings) {
+            assertThat(h.getAsset().getSymbol()).startsWith("NSE:TEST");
+            assertThat(h.getAsset().getCurrentPrice()).isPositive();   // asset_quotes, joined
+        }
+
+        assertThat(holdings).hasSize(ASSETS);
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void keysetHistoryPagesLoadInOneStatementEach() {
+        List<Transaction> first = txRepo.findLatestByUserId(userId, PageRequest.ofSize(8));
+        first.forEach(t -> assertThat(t.getAsset().getSymbol()).isNotNull());
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+
+        Transaction last = first.get(first.size() - 1);
+        List<Transaction> next = txRepo.findByUserIdBefore(userId, last.getExecutedAt(), last.getId(),
+            PageRequest.ofSize(8));
+        next.forEach(t -> assertThat(t.getAsset().getSymbol()).isNotNull());
+
+        assertThat(first).hasSize(8);
+        assertThat(next).hasSize(8).allMatch(t -> t.getExecutedAt().isBefore(last.getExecutedAt())
+            || (t.getExecutedAt().isEqual(last.getExecutedAt()) && t.getId() < last.getId()));
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void watchlistReadsAssetIdsWithoutLoadingAssets() {
+        List<Long> ids = watchlistRepo.findAssetIdsByUserId(userId);
+
+        assertThat(ids).hasSize(ASSETS);
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(stats.getEntityLoadCount()).isZero();
+    }
+}
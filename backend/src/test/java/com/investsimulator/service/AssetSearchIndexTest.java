@@ -0,0 +1,72 @@
+package com.investsimulator.service;
+
+import com.investsimulator.model.Asset;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Ranking and recall of the in-memory asset search index. */
+class AssetSearchIndexTest {
+
+    private static final List<Asset> ASSETS = List.of(
+        asset(1, "NSE:TCS",         "Tata Consultancy Services"),
+        asset(2, "NSE:TATAMOTORS",  "Tata Motors"),
+        asset(3, "NSE:INFY",        "Infosys"),
+        asset(4, "BINANCE:BTCUSDT", "Bitcoin"),
+        asset(5, "NSE:HDFCBANK",    "HDFC Bank"),
+        asset(6, "NSE:ICICIBANK",   "ICICI Bank"));
+
+    private final AssetSearchIndex.Index index = AssetSearchIndex.Index.build(ASSETS);
+
+    @Test
+    void exactSymbolComesFirst() {
+        assertThat(ids(index.find("nse:tcs", 10))).startsWith(1L);
+        assertThat(ids(index.find("tcs", 10))).startsWith(1L);   // bare ticker
+    }
+
+    @Test
+    void prefixesOfTickersAndNameWordsMatch() {
+        assertThat(ids(index.find("tata", 10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids(index.find("motor", 10))).containsExactly(2L);
+        assertThat(ids(index.find("bit", 10))).containsExactly(4L);
+    }
+
+    @Test
+    void infixMatchesGoThroughTrigrams() {
+        assertThat(ids(index.find("bank", 10))).containsExactlyInAnyOrder(5L, 6L);
+        assertThat(ids(index.find("usdt", 10))).containsExactly(4L);
+        assertThat(ids(index.find("sys", 10))).containsExactly(3L);
+        assertThat(index.find("xyz", 10)).isEmpty();
+    }
+
+    @Test
+    void findsEverySubstringMatchWhenUnlimited() {
+        for (String q : List.of("nse", "ban", "ata", "cons", "tcs", "ici", "coin")) {
+            Set<Long> expected = ASSETS.stream()
+                .filter(a -> AssetSearchIndex.normalize(a.getSymbol()).contains(q)
+                    || AssetSearchIndex.normalize(a.getName()).contains(q))
+                .map(Asset::getId).collect(Collectors.toSet());
+
+            assertThat(ids(index.find(q, 100))).as(q).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    void respectsLimitAndBlankQueries() {
+        assertThat(index.find("nse", 2)).hasSize(2);
+        assertThat(index.find("", 10)).isEmpty();
+        assertThat(index.find("tcs", 0)).isEmpty();
+    }
+
+    private static List<Long> ids(List<Asset> assets) {
+        return assets.stream().map(Asset::getId).toList();
+    }
+
+    private static Asset asset(long id, String symbol, String name) {
+        return Asset.builder().id(id).symbol(symbol).name(name).type(Asset.AssetType.STOCK).build();
+    }
+}
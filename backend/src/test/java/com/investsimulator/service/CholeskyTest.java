@@ -0,0 +1,51 @@
+package com.investsimulator.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/** The sector-correlation factorisation behind correlated scenario shocks. */
+class CholeskyTest {
+
+    @Test
+    void lowerFactorReproducesTheCorrelationMatrix() {
+        int k = 3;
+        double[] a = {
+            1.0, 0.6, 0.3,
+            0.6, 1.0, 0.5,
+            0.3, 0.5, 1.0
+        };
+
+        double[] l = ScenarioEngine.Factors.cholesky(a, k);
+
+        assertThat(l).isNotNull();
+        for (int i = 0; i < k; i++) {
+            for (int j = i + 1; j < k; j++) assertThat(l[i * k + j]).isZero();
+            for (int j = 0; j < k; j++) {
+                double sum = 0;
+                for (int p = 0; p < k; p++) sum += l[i * k + p] * l[j * k + p];
+                assertThat(sum).isCloseTo(a[i * k + j], within(1e-12));
+            }
+        }
+    }
+
+    @Test
+    void identityFactorsToIdentity() {
+        double[] l = ScenarioEngine.Factors.cholesky(new double[] {1, 0, 0, 1}, 2);
+
+        assertThat(l).containsExactly(1, 0, 0, 1);
+    }
+
+    @Test
+    void rejectsMatrixThatIsNotPositiveDefinite() {
+        // Pairwise correlations that no three real series can have at once
+        double[] a = {
+             1.0,  0.9, -0.9,
+             0.9,  1.0,  0.9,
+            -0.9,  0.9,  1.0
+        };
+
+        assertThat(ScenarioEngine.Factors.cholesky(a, 3)).isNull();
+    }
+}
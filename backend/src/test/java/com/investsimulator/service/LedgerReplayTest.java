@@ -0,0 +1,135 @@
+package com.investsimulator.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Trade event log segments, snapshots and replay, against a temporary directory. */
+class LedgerReplayTest {
+
+    private static final long ALICE = 1, BOB = 2;
+    private static final long TCS = 10, INFY = 11;
+
+    @TempDir
+    Path dir;
+
+    private TradeEventLog eventLog;
+    private LedgerReplay  replay;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        eventLog = openLog();
+        replay   = replayOf(eventLog);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(eventLog, "close");
+    }
+
+    @Test
+    void replayKeepsLatestStatePerUserAndPosition() {
+        tradeHistory();
+
+        LedgerReplay.State state = replay.replay();
+
+        assertThat(state.seq).isEqualTo(eventLog.lastSeq()).isEqualTo(6);
+        LedgerReplay.UserState alice = state.users.get(ALICE);
+        assertThat(alice.balance).isEqualTo(TradeEvent.unscaled(new BigDecimal("9200"), 4));
+        assertThat(alice.realizedPnl).isEqualTo(TradeEvent.unscaled(new BigDecimal("150"), 4));
+        assertThat(alice.positions).containsOnlyKeys(INFY);   // TCS was sold out
+        assertThat(alice.positions.get(INFY))
+            .containsExactly(TradeEvent.unscaled(new BigDecimal("2"), 8),
+                             TradeEvent.unscaled(new BigDecimal("400"), 6),
+                             TradeEvent.unscaled(new BigDecimal("800"), 4));
+        assertThat(state.users.get(BOB).balance).isEqualTo(TradeEvent.unscaled(new BigDecimal("500"), 4));
+        assertThat(state.users.get(BOB).positions).isEmpty();
+    }
+
+    @Test
+    void reopenedLogContinuesAfterTheLastWrittenEvent() throws IOException {
+        tradeHistory();   // 6 events over segments of 4
+        ReflectionTestUtils.invokeMethod(eventLog, "close");
+
+        eventLog = openLog();
+        assertThat(eventLog.lastSeq()).isEqualTo(6);
+        assertThat(eventLog.append(TradeEvent.cash(BOB, new BigDecimal("450")))).isEqualTo(7);
+
+        assertThat(replayOf(eventLog).replay().users.get(BOB).balance).isEqualTo(TradeEvent.unscaled(new BigDecimal("450"), 4));
+    }
+
+    @Test
+    void snapshotPlusTailMatchesFullReplay() throws IOException {
+        tradeHistory();
+        replay.snapshot();
+        eventLog.append(TradeEvent.fill(ALICE, INFY, TradeEvent.Type.SELL, new BigDecimal("1"), new BigDecimal("450"),
+            new BigDecimal("9650"), new BigDecimal("1"), new BigDecimal("400"), new BigDecimal("400"), new BigDecimal("50")));
+
+        LedgerReplay.State fromSnapshot = replay.replay();
+        LedgerReplay.State full = new LedgerReplay.State(0);
+        eventLog.read(1, eventLog.lastSeq(), full::apply);
+
+        assertThat(fromSnapshot.seq).isEqualTo(full.seq).isEqualTo(7);
+        assertThat(fromSnapshot.users).containsOnlyKeys(full.users.keySet());
+        full.users.forEach((userId, u) -> {
+            LedgerReplay.UserState s = fromSnapshot.users.get(userId);
+            assertThat(s.balance).isEqualTo(u.balance);
+            assertThat(s.realizedPnl).isEqualTo(u.realizedPnl);
+            assertThat(s.positions).containsOnlyKeys(u.positions.keySet());
+            u.positions.forEach((assetId, pos) -> assertThat(s.positions.get(assetId)).containsExactly(pos));
+        });
+    }
+
+    @Test
+    void keepsTheTwoNewestSnapshots() throws IOException {
+        for (int i = 1; i <= 3; i++) {
+            eventLog.append(TradeEvent.cash(BOB, BigDecimal.valueOf(100 * i)));
+            replay.snapshot();
+        }
+        replay.snapshot();   // nothing new: no file
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.map(p -> p.getFileName().toString()).filter(n -> n.startsWith("snapshot-")))
+                .containsExactly("snapshot-00000000000000000002.bin", "snapshot-00000000000000000003.bin");
+        }
+    }
+
+    private void tradeHistory() {
+        eventLog.append(TradeEvent.cash(ALICE, new BigDecimal("10000")));
+        eventLog.append(TradeEvent.fill(ALICE, TCS, TradeEvent.Type.BUY, new BigDecimal("3"), new BigDecimal("350"),
+            new BigDecimal("8950"), new BigDecimal("3"), new BigDecimal("350"), new BigDecimal("1050"), BigDecimal.ZERO));
+        eventLog.append(TradeEvent.fill(ALICE, INFY, TradeEvent.Type.BUY, new BigDecimal("2"), new BigDecimal("400"),
+            new BigDecimal("8150"), new BigDecimal("2"), new BigDecimal("400"), new BigDecimal("800"), BigDecimal.ZERO));
+        eventLog.append(TradeEvent.cash(BOB, new BigDecimal("500")));
+        eventLog.append(TradeEvent.fill(ALICE, TCS, TradeEvent.Type.SELL, new BigDecimal("1"), new BigDecimal("400"),
+            new BigDecimal("8550"), new BigDecimal("2"), new BigDecimal("350"), new BigDecimal("700"), new BigDecimal("50")));
+        eventLog.append(TradeEvent.fill(ALICE, TCS, TradeEvent.Type.SELL, new BigDecimal("2"), new BigDecimal("400"),
+            new BigDecimal("9200"), BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal("100")));
+    }
+
+    /** Replay and snapshots only touch the log and the directory; the database side stays null. */
+    private LedgerReplay replayOf(TradeEventLog log) {
+        LedgerReplay r = new LedgerReplay(log, null, null, null, null, null, null, null, null);
+        ReflectionTestUtils.setField(r, "dir", dir.toString());
+        return r;
+    }
+
+    private TradeEventLog openLog() throws IOException {
+        TradeEventLog log = new TradeEventLog();
+        ReflectionTestUtils.setField(log, "enabled", true);
+        ReflectionTestUtils.setField(log, "dir", dir.toString());
+        ReflectionTestUtils.setField(log, "segmentEvents", 4);
+        ReflectionTestUtils.invokeMethod(log, "open");
+        return log;
+    }
+}
@@ -0,0 +1,88 @@
+package com.investsimulator.service;
+
+import com.investsimulator.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Reservations of resting limit orders through cross, settle, restore and cancel. */
+class LimitOrderBookTest {
+
+    private static final long USER  = 1;
+    private static final long ASSET = 10;
+
+    private LimitOrderBook book;
+
+    @BeforeEach
+    void setUp() {
+        book = new LimitOrderBook(null);
+    }
+
+    @Test
+    void restingOrdersReserveQuantityAndCash() {
+        book.add(sell(1, "5", "110"));
+        book.add(buy(2, "2", "90", "180.0000"));
+
+        assertThat(book.reservedQuantity(USER, ASSET)).isEqualByComparingTo("5");
+        assertThat(book.reservedCash(USER)).isEqualByComparingTo("180");
+        assertThat(book.size()).isEqualTo(2);
+    }
+
+    @Test
+    void crossedSellStaysReservedUntilSettled() {
+        book.add(sell(1, "5", "110"));
+
+        assertThat(book.cross(ASSET, LimitOrderBook.toMicros(111.0))).extracting(LimitOrderBook.Resting::orderId)
+            .containsExactly(1L);
+        assertThat(book.size()).isZero();
+        assertThat(book.reservedQuantity(USER, ASSET)).isEqualByComparingTo("5");
+        assertThat(book.remove(1)).isFalse();   // being filled: cannot be cancelled
+
+        book.settle(1);
+        assertThat(book.reservedQuantity(USER, ASSET)).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void restoredOrderRestsAgainWithoutDoubleReserving() {
+        LimitOrderBook.Resting order = sell(1, "5", "110");
+        book.add(order);
+        book.cross(ASSET, LimitOrderBook.toMicros(120.0));
+
+        book.restore(order);
+
+        assertThat(book.size()).isEqualTo(1);
+        assertThat(book.reservedQuantity(USER, ASSET)).isEqualByComparingTo("5");
+        assertThat(book.remove(1)).isTrue();
+        assertThat(book.reservedQuantity(USER, ASSET)).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void crossesInPriceTimePriority() {
+        book.add(buy(1, "1", "100", "100"));
+        book.add(buy(2, "1", "105", "105"));
+        book.add(buy(3, "1", "105", "105"));
+        book.add(buy(4, "1", "95", "95"));
+
+        assertThat(book.cross(ASSET, LimitOrderBook.toMicros(100.0))).extracting(LimitOrderBook.Resting::orderId)
+            .containsExactly(2L, 3L, 1L);
+        assertThat(book.reservedCash(USER)).isEqualByComparingTo("405");
+
+        book.settle(2);
+        book.settle(3);
+        book.settle(1);
+        assertThat(book.reservedCash(USER)).isEqualByComparingTo("95");
+    }
+
+    private static LimitOrderBook.Resting sell(long id, String qty, String limit) {
+        return new LimitOrderBook.Resting(id, USER, ASSET, Transaction.TradeType.SELL,
+            new BigDecimal(qty), LimitOrderBook.toMicros(new BigDecimal(limit)), BigDecimal.ZERO);
+    }
+
+    private static LimitOrderBook.Resting buy(long id, String qty, String limit, String reserved) {
+        return new LimitOrderBook.Resting(id, USER, ASSET, Transaction.TradeType.BUY,
+            new BigDecimal(qty), LimitOrderBook.toMicros(new BigDecimal(limit)), new BigDecimal(reserved));
+    }
+}
@@ -0,0 +1,73 @@
+package com.investsimulator.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** The leaderboard treap against a sorted list, through inserts, moves and removals. */
+class RankTreeTest {
+
+    @Test
+    void ranksByScoreDescendingThenUserId() {
+        Leaderboard.RankTree tree = new Leaderboard.RankTree();
+        tree.put(1, 100.0, 30);
+        tree.put(2, 250.0, 10);
+        tree.put(3, 100.0, 20);
+
+        assertThat(tree.size()).isEqualTo(3);
+        assertThat(tree.rank(2)).isZero();
+        assertThat(tree.rank(3)).isEqualTo(1);   // tie on score: lower user id first
+        assertThat(tree.rank(1)).isEqualTo(2);
+        assertThat(tree.select(0)).isEqualTo(2);
+        assertThat(tree.select(2)).isEqualTo(1);
+    }
+
+    @Test
+    void removedSlotIsNoLongerRanked() {
+        Leaderboard.RankTree tree = new Leaderboard.RankTree();
+        tree.put(1, 1.0, 1);
+        tree.put(2, 2.0, 2);
+        tree.remove(2);
+        tree.remove(2);   // idempotent
+
+        assertThat(tree.size()).isEqualTo(1);
+        assertThat(tree.rank(1)).isZero();
+        assertThatThrownBy(() -> tree.rank(2)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void matchesSortedReferenceUnderRandomUpdates() {
+        Leaderboard.RankTree tree = new Leaderboard.RankTree();
+        Map<Integer, double[]> live = new HashMap<>();   // slot -> {score, userId}
+        SplittableRandom rnd = new SplittableRandom(7);
+
+        for (int step = 0; step < 20_000; step++) {
+            int slot = 1 + rnd.nextInt(3_000);   // past the initial 1024 to exercise growth
+            if (rnd.nextInt(5) == 0) {
+                tree.remove(slot);
+                live.remove(slot);
+            } else {
+                double score = rnd.nextInt(500);   // coarse, so ties are common
+                tree.put(slot, score, slot);
+                live.put(slot, new double[] {score, slot});
+            }
+        }
+
+        List<Integer> expected = new ArrayList<>(live.keySet());
+        expected.sort(Comparator.<Integer>comparingDouble(s -> -live.get(s)[0]).thenComparingInt(s -> s));
+
+        assertThat(tree.size()).isEqualTo(expected.size());
+        for (int r = 0; r < expected.size(); r++) {
+            assertThat(tree.select(r)).isEqualTo(expected.get(r));
+            assertThat(tree.rank(expected.get(r))).isEqualTo(r);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.investsimulator.service;
+
+import com.investsimulator.model.Asset;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** The price_history ring buffer: publish, drop when full, drain in flush-size batches. */
+class TickRecorderTest {
+
+    private static final int ASSETS = 5;
+
+    private final RecordingJdbc       jdbc   = new RecordingJdbc();
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private TickRecorder     recorder;
+    private PriceBook.Quotes quotes;
+
+    @BeforeEach
+    void setUp() {
+        recorder = new TickRecorder(jdbc, meters);
+        ReflectionTestUtils.setField(recorder, "enabled", true);
+        ReflectionTestUtils.setField(recorder, "requestedCapacity", 8);
+        ReflectionTestUtils.setField(recorder, "flushSize", 3);
+        ReflectionTestUtils.invokeMethod(recorder, "init");
+
+        quotes = PriceBook.Quotes.EMPTY.with(LongStream.rangeClosed(1, ASSETS)
+            .mapToObj(id -> Asset.builder().id(id).symbol("NSE:T" + id).name("T" + id)
+                .type(Asset.AssetType.STOCK).basePrice(BigDecimal.TEN).currentPrice(BigDecimal.TEN).build())
+            .toList());
+    }
+
+    @Test
+    void flushDrainsInFlushSizeBatchesInPublishOrder() {
+        tick(1.0);
+
+        assertThat(recorder.buffered()).isEqualTo(ASSETS);
+        recorder.flush();
+
+        assertThat(jdbc.batchSizes).containsExactly(3, 2);
+        assertThat(jdbc.assetIds).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(recorder.buffered()).isZero();
+        assertThat(count("flushed")).isEqualTo(ASSETS);
+    }
+
+    @Test
+    void unmovedAssetsAreNotRecorded() {
+        tick(1.0);
+        PriceTickEvent same = new PriceTickEvent(quotes, quotes);
+        recorder.onTick(same);
+
+        assertThat(recorder.buffered()).isEqualTo(ASSETS);
+    }
+
+    @Test
+    void fullBufferDropsNewTicksAndKeepsOldOnes() {
+        tick(1.0);
+        tick(2.0);   // capacity 8: three fit, two are dropped
+
+        assertThat(recorder.buffered()).isEqualTo(8);
+        assertThat(count("recorded")).isEqualTo(8);
+        assertThat(count("dropped")).isEqualTo(2);
+
+        recorder.flush();
+        assertThat(jdbc.batchSizes).containsExactly(3, 3, 2);
+        assertThat(jdbc.assetIds).containsExactly(1L, 2L, 3L, 4L, 5L, 1L, 2L, 3L);
+
+        tick(3.0);   // space again after the drain, across the ring's wrap point
+        assertThat(recorder.buffered()).isEqualTo(ASSETS);
+    }
+
+    @Test
+    void failedBatchIsCountedAndSkipped() {
+        tick(1.0);
+        jdbc.fail = true;
+
+        recorder.flush();
+
+        assertThat(recorder.buffered()).isZero();
+        assertThat(count("failed")).isEqualTo(ASSETS);
+        assertThat(count("flushed")).isZero();
+    }
+
+    private void tick(double delta) {
+        double[] next = Arrays.copyOf(quotes.price, quotes.price.length);
+        for (int id : quotes.activeIds) next[id] += delta;
+        PriceBook.Quotes current = quotes.next(next, new double[next.length], System.currentTimeMillis());
+        recorder.onTick(new PriceTickEvent(quotes, current));
+        quotes = current;
+    }
+
+    private double count(String result) {
+        return meters.get("history.ticks").tag("result", result).functionCounter().count();
+    }
+
+    /** Runs each batch against a PreparedStatement that only remembers the asset id. */
+    private static final class RecordingJdbc extends JdbcTemplate {
+        final List<Integer> batchSizes = new ArrayList<>();
+        final List<Long>    assetIds   = new ArrayList<>();
+        boolean fail;
+
+        @Override
+        public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) {
+            if (fail) throw new IllegalStateException("database down");
+            PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("setLong") && (int) args[0] == 1) assetIds.add((Long) args[1]);
+                    return null;
+                });
+            try {
+                for (int i = 0; i < pss.getBatchSize(); i++) pss.setValues(ps, i);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            batchSizes.add(pss.getBatchSize());
+            return new int[pss.getBatchSize()];
+        }
+    }
+}
@@ -38,8 +38,6 @@ CREATE TABLE assets (
   type          ENUM('STOCK','CRYPTO') NOT NULL,
   sector        VARCHAR(80)         NULL,
   base_price    DECIMAL(18,6)       NOT NULL DEFAULT 0.0,
-  current_price DECIMAL(18,6)       NOT NULL DEFAULT 0.0,
-  price_change_pct DECIMAL(8,4)     NOT NULL DEFAULT 0.0,
   market_cap    DECIMAL(24,2)       NULL,
   is_active     BOOLEAN             NOT NULL DEFAULT TRUE,
   created_at    TIMESTAMP           NOT NULL DEFAULT CURRENT_TIMESTAMP,
@@ -49,6 +47,18 @@ CREATE TABLE assets (
   INDEX idx_active (is_active)
 );
 
+-- ============================================================
+-- TABLE 2b: asset_quotes (live price, written behind every flush)
+-- ============================================================
+-- Kept apart from assets so a price flush rewrites only this narrow row.
+CREATE TABLE asset_quotes (
+  asset_id         BIGINT        PRIMARY KEY,
+  current_price    DECIMAL(18,6) NOT NULL DEFAULT 0.0,
+  price_change_pct DECIMAL(8,4)  NOT NULL DEFAULT 0.0,
+  updated_at       TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  FOREIGN KEY (asset_id) REFERENCES assets(id) ON DELETE CASCADE
+);
+
 -- ============================================================
 -- TABLE 3: portfolios (one per user)
 -- ============================================================
@@ -102,13 +112,26 @@ CREATE TABLE transactions (
   notes           TEXT                      NULL,
   FOREIGN KEY (user_id)  REFERENCES users(id)  ON DELETE CASCADE,
   FOREIGN KEY (asset_id) REFERENCES assets(id) ON DELETE RESTRICT,
-  INDEX idx_user (user_id),
+  INDEX idx_user_time (user_id, executed_at, id),   -- history keyset pages + export
   INDEX idx_asset (asset_id),
   INDEX idx_type (type),
   INDEX idx_executed_at (executed_at),
   INDEX idx_user_asset (user_id, asset_id)
 );
 
+-- ============================================================
+-- TABLE 5b: id_sequences (pooled id blocks for batch inserts)
+-- ============================================================
+-- next_val is the upper end of the next block of 500 ids to hand out.
+-- Seeded above any existing transaction id so blocks never overlap.
+CREATE TABLE id_sequences (
+  seq_name  VARCHAR(64)  NOT NULL PRIMARY KEY,
+  next_val  BIGINT       NOT NULL
+);
+
+INSERT INTO id_sequences (seq_name, next_val)
+SELECT 'transactions', COALESCE(MAX(id), 0) + 501 FROM transactions;
+
 -- ============================================================
 -- TABLE 6: watchlist
 -- ============================================================
@@ -136,6 +159,44 @@ CREATE TABLE price_history (
   INDEX idx_asset_time (asset_id, recorded_at)
 );
 
+-- ============================================================
+-- TABLE 7b: price_candles (OHLCV rollups: 1s, 1m, 5m, 1h, 1d)
+-- ============================================================
+CREATE TABLE price_candles (
+  id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+  asset_id    BIGINT          NOT NULL,
+  resolution  ENUM('S1','M1','M5','H1','D1') NOT NULL,
+  bucket_time BIGINT          NOT NULL,                  -- bucket start, epoch seconds (UTC)
+  open        DECIMAL(18,6)   NOT NULL,
+  high        DECIMAL(18,6)   NOT NULL,
+  low         DECIMAL(18,6)   NOT NULL,
+  close       DECIMAL(18,6)   NOT NULL,
+  volume      BIGINT          NOT NULL DEFAULT 0,        -- tick volume
+  FOREIGN KEY (asset_id) REFERENCES assets(id) ON DELETE CASCADE,
+  UNIQUE KEY uq_candle_bucket (asset_id, resolution, bucket_time)
+);
+
+-- ============================================================
+-- TABLE 7c: limit_orders (resting LIMIT orders)
+-- ============================================================
+CREATE TABLE limit_orders (
+  id              BIGINT AUTO_INCREMENT PRIMARY KEY,
+  user_id         BIGINT                    NOT NULL,
+  asset_id        BIGINT                    NOT NULL,
+  side            ENUM('BUY','SELL')        NOT NULL,
+  quantity        DECIMAL(18,8)             NOT NULL,
+  limit_price     DECIMAL(18,6)             NOT NULL,
+  reserved_amount DECIMAL(18,4)             NOT NULL DEFAULT 0,   -- cash held back for BUY orders
+  status          ENUM('OPEN','FILLED','CANCELLED') NOT NULL DEFAULT 'OPEN',
+  fill_price      DECIMAL(18,6)             NULL,
+  created_at      TIMESTAMP                 NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  closed_at       TIMESTAMP                 NULL,
+  FOREIGN KEY (user_id)  REFERENCES users(id)  ON DELETE CASCADE,
+  FOREIGN KEY (asset_id) REFERENCES assets(id) ON DELETE RESTRICT,
+  INDEX idx_lo_user_status (user_id, status, created_at),
+  INDEX idx_lo_status (status)
+);
+
 -- ============================================================
 -- TABLE 8: user_sessions (JWT token blacklist)
 -- ============================================================
@@ -154,57 +215,61 @@ CREATE TABLE user_sessions (
 -- ============================================================
 -- SEED DATA: NSE Stocks (Top 25)
 -- ============================================================
-INSERT INTO assets (symbol, name, type, sector, base_price, current_price) VALUES
-('NSE:RELIANCE',    'Reliance Industries',         'STOCK', 'Energy',          2847.50, 2847.50),
-('NSE:TCS',         'Tata Consultancy Services',    'STOCK', 'IT',              3921.75, 3921.75),
-('NSE:HDFCBANK',    'HDFC Bank',                    'STOCK', 'Banking',         1654.30, 1654.30),
-('NSE:INFY',        'Infosys',                      'STOCK', 'IT',              1489.60, 1489.60),
-('NSE:HINDUNILVR',  'Hindustan Unilever',           'STOCK', 'FMCG',            2378.90, 2378.90),
-('NSE:ICICIBANK',   'ICICI Bank',                   'STOCK', 'Banking',         1089.45, 1089.45),
-('NSE:SBIN',        'State Bank of India',          'STOCK', 'Banking',         812.30,  812.30),
-('NSE:BHARTIARTL',  'Bharti Airtel',                'STOCK', 'Telecom',         1723.80, 1723.80),
-('NSE:ITC',         'ITC Limited',                  'STOCK', 'FMCG',            453.20,  453.20),
-('NSE:KOTAKBANK',   'Kotak Mahindra Bank',          'STOCK', 'Banking',         1876.55, 1876.55),
-('NSE:LT',          'Larsen & Toubro',              'STOCK', 'Infrastructure',  3564.10, 3564.10),
-('NSE:AXISBANK',    'Axis Bank',                    'STOCK', 'Banking',         1134.75, 1134.75),
-('NSE:WIPRO',       'Wipro',                        'STOCK', 'IT',              567.40,  567.40),
-('NSE:MARUTI',      'Maruti Suzuki India',          'STOCK', 'Auto',            12450.00, 12450.00),
-('NSE:SUNPHARMA',   'Sun Pharmaceutical',           'STOCK', 'Pharma',          1678.25, 1678.25),
-('NSE:HCLTECH',     'HCL Technologies',             'STOCK', 'IT',              1789.50, 1789.50),
-('NSE:TATAMOTORS',  'Tata Motors',                  'STOCK', 'Auto',            967.80,  967.80),
-('NSE:ONGC',        'Oil & Natural Gas Corp',       'STOCK', 'Energy',          276.45,  276.45),
-('NSE:POWERGRID',   'Power Grid Corporation',       'STOCK', 'Utilities',       327.60,  327.60),
-('NSE:NTPC',        'NTPC Limited',                 'STOCK', 'Utilities',       389.25,  389.25),
-('NSE:BAJFINANCE',  'Bajaj Finance',                'STOCK', 'Finance',         7234.80, 7234.80),
-('NSE:TITAN',       'Titan Company',                'STOCK', 'Consumer',        3456.70, 3456.70),
-('NSE:ASIANPAINT',  'Asian Paints',                 'STOCK', 'Consumer',        2987.30, 2987.30),
-('NSE:ULTRACEMCO',  'UltraTech Cement',             'STOCK', 'Materials',       11234.50, 11234.50),
-('NSE:NESTLEIND',   'Nestlé India',                 'STOCK', 'FMCG',            24567.00, 24567.00);
+INSERT INTO assets (symbol, name, type, sector, base_price) VALUES
+('NSE:RELIANCE',    'Reliance Industries',         'STOCK', 'Energy',          2847.50),
+('NSE:TCS',         'Tata Consultancy Services',    'STOCK', 'IT',              3921.75),
+('NSE:HDFCBANK',    'HDFC Bank',                    'STOCK', 'Banking',         1654.30),
+('NSE:INFY',        'Infosys',                      'STOCK', 'IT',              1489.60),
+('NSE:HINDUNILVR',  'Hindustan Unilever',           'STOCK', 'FMCG',            2378.90),
+('NSE:ICICIBANK',   'ICICI Bank',                   'STOCK', 'Banking',         1089.45),
+('NSE:SBIN',        'State Bank of India',          'STOCK', 'Banking',         812.30),
+('NSE:BHARTIARTL',  'Bharti Airtel',                'STOCK', 'Telecom',         1723.80),
+('NSE:ITC',         'ITC Limited',                  'STOCK', 'FMCG',            453.20),
+('NSE:KOTAKBANK',   'Kotak Mahindra Bank',          'STOCK', 'Banking',         1876.55),
+('NSE:LT',          'Larsen & Toubro',              'STOCK', 'Infrastructure',  3564.10),
+('NSE:AXISBANK',    'Axis Bank',                    'STOCK', 'Banking',         1134.75),
+('NSE:WIPRO',       'Wipro',                        'STOCK', 'IT',              567.40),
+('NSE:MARUTI',      'Maruti Suzuki India',          'STOCK', 'Auto',            12450.00),
+('NSE:SUNPHARMA',   'Sun Pharmaceutical',           'STOCK', 'Pharma',          1678.25),
+('NSE:HCLTECH',     'HCL Technologies',             'STOCK', 'IT',              1789.50),
+('NSE:TATAMOTORS',  'Tata Motors',                  'STOCK', 'Auto',            967.80),
+('NSE:ONGC',        'Oil & Natural Gas Corp',       'STOCK', 'Energy',          276.45),
+('NSE:POWERGRID',   'Power Grid Corporation',       'STOCK', 'Utilities',       327.60),
+('NSE:NTPC',        'NTPC Limited',                 'STOCK', 'Utilities',       389.25),
+('NSE:BAJFINANCE',  'Bajaj Finance',                'STOCK', 'Finance',         7234.80),
+('NSE:TITAN',       'Titan Company',                'STOCK', 'Consumer',        3456.70),
+('NSE:ASIANPAINT',  'Asian Paints',                 'STOCK', 'Consumer',        2987.30),
+('NSE:ULTRACEMCO',  'UltraTech Cement',             'STOCK', 'Materials',       11234.50),
+('NSE:NESTLEIND',   'Nestlé India',                 'STOCK', 'FMCG',            24567.00);
 
 -- ============================================================
 -- SEED DATA: Cryptocurrencies (Top 20)
 -- ============================================================
-INSERT INTO assets (symbol, name, type, sector, base_price, current_price) VALUES
-('BINANCE:BTCUSDT',  'Bitcoin',          'CRYPTO', 'Layer 1',   67432.50, 67432.50),
-('BINANCE:ETHUSDT',  'Ethereum',         'CRYPTO', 'Layer 1',   3456.78,  3456.78),
-('BINANCE:BNBUSDT',  'BNB',              'CRYPTO', 'Exchange',  567.34,   567.34),
-('BINANCE:SOLUSDT',  'Solana',           'CRYPTO', 'Layer 1',   189.45,   189.45),
-('BINANCE:XRPUSDT',  'XRP',              'CRYPTO', 'Payments',  0.6234,   0.6234),
-('BINANCE:ADAUSDT',  'Cardano',          'CRYPTO', 'Layer 1',   0.4891,   0.4891),
-('BINANCE:AVAXUSDT', 'Avalanche',        'CRYPTO', 'Layer 1',   38.76,    38.76),
-('BINANCE:DOGEUSDT', 'Dogecoin',         'CRYPTO', 'Meme',      0.1456,   0.1456),
-('BINANCE:DOTUSDT',  'Polkadot',         'CRYPTO', 'Interop',   7.89,     7.89),
-('BINANCE:MATICUSDT','Polygon',          'CRYPTO', 'Layer 2',   0.8923,   0.8923),
-('BINANCE:LINKUSDT', 'Chainlink',        'CRYPTO', 'Oracle',    14.56,    14.56),
-('BINANCE:UNIUSDT',  'Uniswap',          'CRYPTO', 'DeFi',      10.23,    10.23),
-('BINANCE:LTCUSDT',  'Litecoin',         'CRYPTO', 'Payments',  87.45,    87.45),
-('BINANCE:ATOMUSDT', 'Cosmos',           'CRYPTO', 'Interop',   9.67,     9.67),
-('BINANCE:NEARUSDT', 'NEAR Protocol',    'CRYPTO', 'Layer 1',   5.34,     5.34),
-('BINANCE:FTMUSDT',  'Fantom',           'CRYPTO', 'Layer 1',   0.7823,   0.7823),
-('BINANCE:ALGOUSDT', 'Algorand',         'CRYPTO', 'Layer 1',   0.1967,   0.1967),
-('BINANCE:ICPUSDT',  'Internet Computer','CRYPTO', 'Web3',      12.34,    12.34),
-('BINANCE:APTUSDT',  'Aptos',            'CRYPTO', 'Layer 1',   9.45,     9.45),
-('BINANCE:ARBUSDT',  'Arbitrum',         'CRYPTO', 'Layer 2',   1.23,     1.23);
+INSERT INTO assets (symbol, name, type, sector, base_price) VALUES
+('BINANCE:BTCUSDT',  'Bitcoin',          'CRYPTO', 'Layer 1',   67432.50),
+('BINANCE:ETHUSDT',  'Ethereum',         'CRYPTO', 'Layer 1',   3456.78),
+('BINANCE:BNBUSDT',  'BNB',              'CRYPTO', 'Exchange',  567.34),
+('BINANCE:SOLUSDT',  'Solana',           'CRYPTO', 'Layer 1',   189.45),
+('BINANCE:XRPUSDT',  'XRP',              'CRYPTO', 'Payments',  0.6234),
+('BINANCE:ADAUSDT',  'Cardano',          'CRYPTO', 'Layer 1',   0.4891),
+('BINANCE:AVAXUSDT', 'Avalanche',        'CRYPTO', 'Layer 1',   38.76),
+('BINANCE:DOGEUSDT', 'Dogecoin',         'CRYPTO', 'Meme',      0.1456),
+('BINANCE:DOTUSDT',  'Polkadot',         'CRYPTO', 'Interop',   7.89),
+('BINANCE:MATICUSDT','Polygon',          'CRYPTO', 'Layer 2',   0.8923),
+('BINANCE:LINKUSDT', 'Chainlink',        'CRYPTO', 'Oracle',    14.56),
+('BINANCE:UNIUSDT',  'Uniswap',          'CRYPTO', 'DeFi',      10.23),
+('BINANCE:LTCUSDT',  'Litecoin',         'CRYPTO', 'Payments',  87.45),
+('BINANCE:ATOMUSDT', 'Cosmos',           'CRYPTO', 'Interop',   9.67),
+('BINANCE:NEARUSDT', 'NEAR Protocol',    'CRYPTO', 'Layer 1',   5.34),
+('BINANCE:FTMUSDT',  'Fantom',           'CRYPTO', 'Layer 1',   0.7823),
+('BINANCE:ALGOUSDT', 'Algorand',         'CRYPTO', 'Layer 1',   0.1967),
+('BINANCE:ICPUSDT',  'Internet Computer','CRYPTO', 'Web3',      12.34),
+('BINANCE:APTUSDT',  'Aptos',            'CRYPTO', 'Layer 1',   9.45),
+('BINANCE:ARBUSDT',  'Arbitrum',         'CRYPTO', 'Layer 2',   1.23);
+
+-- Every asset starts quoted at its base price
+INSERT INTO asset_quotes (asset_id, current_price)
+SELECT id, base_price FROM assets;
 
 -- ============================================================
 -- STORED PROCEDURE: Execute Trade (atomic buy/sell logic)
@@ -225,6 +290,7 @@ BEGIN
   DECLARE v_hold_avg     DECIMAL(18,6) DEFAULT 0;
   DECLARE v_total        DECIMAL(18,4);
   DECLARE v_pnl          DECIMAL(18,4) DEFAULT NULL;
+  DECLARE v_tx_id        BIGINT;
   DECLARE EXIT HANDLER FOR SQLEXCEPTION
   BEGIN
     ROLLBACK;
@@ -239,6 +305,10 @@ BEGIN
 
   SET v_total = p_quantity * p_price;
 
+  -- Claim a whole id block so the row cannot collide with the application's
+  UPDATE id_sequences SET next_val = LAST_INSERT_ID(next_val) + 500 WHERE seq_name = 'transactions';
+  SET v_tx_id = LAST_INSERT_ID();
+
   IF p_trade_type = 'BUY' THEN
     IF v_balance < v_total THEN
       SET p_result = 'ERROR: Insufficient balance';
@@ -254,8 +324,8 @@ BEGIN
         total_invested = total_invested + v_total,
         updated_at     = NOW();
 
-      INSERT INTO transactions (user_id, asset_id, type, quantity, price_per_unit, total_amount)
-      VALUES (p_user_id, p_asset_id, 'BUY', p_quantity, p_price, v_total);
+      INSERT INTO transactions (id, user_id, asset_id, type, quantity, price_per_unit, total_amount)
+      VALUES (v_tx_id, p_user_id, p_asset_id, 'BUY', p_quantity, p_price, v_total);
 
       UPDATE portfolios SET total_invested = total_invested + v_total WHERE user_id = p_user_id;
 
@@ -280,8 +350,8 @@ BEGIN
 
       DELETE FROM holdings WHERE user_id = p_user_id AND asset_id = p_asset_id AND quantity <= 0;
 
-      INSERT INTO transactions (user_id, asset_id, type, quantity, price_per_unit, total_amount, realized_pnl, avg_buy_price)
-      VALUES (p_user_id, p_asset_id, 'SELL', p_quantity, p_price, v_total, v_pnl, v_hold_avg);
+      INSERT INTO transactions (id, user_id, asset_id, type, quantity, price_per_unit, total_amount, realized_pnl, avg_buy_price)
+      VALUES (v_tx_id, p_user_id, p_asset_id, 'SELL', p_quantity, p_price, v_total, v_pnl, v_hold_avg);
 
       UPDATE portfolios SET realized_pnl = realized_pnl + v_pnl WHERE user_id = p_user_id;
 
@@ -317,13 +387,13 @@ SELECT
   u.full_name,
   u.virtual_balance,
   COUNT(h.id)    AS total_positions,
-  SUM(h.quantity * a.current_price) AS current_portfolio_value,
+  SUM(h.quantity * q.current_price) AS current_portfolio_value,
   SUM(h.total_invested)             AS total_cost_basis,
-  SUM(h.quantity * a.current_price) - SUM(h.total_invested) AS unrealized_pnl,
+  SUM(h.quantity * q.current_price) - SUM(h.total_invested) AS unrealized_pnl,
   p.realized_pnl
 FROM users u
-LEFT JOIN holdings h ON h.user_id = u.id
-LEFT JOIN assets   a ON a.id = h.asset_id
+LEFT JOIN holdings     h ON h.user_id = u.id
+LEFT JOIN asset_quotes q ON q.asset_id = h.asset_id
 LEFT JOIN portfolios p ON p.user_id = u.id
 GROUP BY u.id, u.full_name, u.virtual_balance, p.realized_pnl;
 
@@ -337,11 +407,12 @@ SELECT
   a.sector,
   h.quantity,
   h.avg_buy_price,
-  a.current_price,
-  h.quantity * a.current_price     AS current_value,
+  q.current_price,
+  h.quantity * q.current_price     AS current_value,
   h.total_invested                 AS cost_basis,
-  (a.current_price - h.avg_buy_price) * h.quantity AS unrealized_pnl,
-  ((a.current_price - h.avg_buy_price) / h.avg_buy_price) * 100 AS pnl_pct
+  (q.current_price - h.avg_buy_price) * h.quantity AS unrealized_pnl,
+  ((q.current_price - h.avg_buy_price) / h.avg_buy_price) * 100 AS pnl_pct
 FROM holdings h
-JOIN assets a ON a.id = h.asset_id
+JOIN assets       a ON a.id = h.asset_id
+JOIN asset_quotes q ON q.asset_id = h.asset_id
 WHERE h.quantity > 0;